@@ -0,0 +1,94 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.User;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credit, debit and transfer through BankingService against an in-memory database,
+ * for both ledger engines, and for the sharded engine with its journal synced to a
+ * temporary directory. Every benchmark thread posts on its own pair of accounts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankingServiceBenchmark {
+    
+    @Param({"jpa", "sharded", "journaled"})
+    private String engine;
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private Path journalDir;
+    
+    @Setup
+    public void setUp() throws IOException {
+        if (engine.equals("journaled")) {
+            journalDir = Files.createTempDirectory("ledger-journal");
+            context = BenchmarkApplication.start("--app.ledger.engine=sharded",
+                    "--app.ledger.journal.enabled=true",
+                    "--app.ledger.journal.dir=" + journalDir);
+        } else {
+            context = BenchmarkApplication.start("--app.ledger.engine=" + engine);
+        }
+        bankingService = context.getBean(BankingService.class);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        if (journalDir != null) {
+            // A clean shutdown leaves no segments behind
+            Files.deleteIfExists(journalDir);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        private TransactionRequest credit;
+        private TransactionRequest debit;
+        private TransactionRequest transfer;
+        
+        @Setup
+        public void setUp(BankingServiceBenchmark benchmark) {
+            User account = BenchmarkApplication.createUser(benchmark.context, "sender");
+            User counterparty = BenchmarkApplication.createUser(benchmark.context, "receiver");
+            
+            // Runs on the benchmark thread, so the security context is the one the benchmarks see
+            BenchmarkApplication.authenticate(account);
+            benchmark.bankingService.creditMoney(new TransactionRequest(new BigDecimal("1000000000.00")));
+            
+            credit = new TransactionRequest(BigDecimal.ONE);
+            debit = new TransactionRequest(BigDecimal.ONE);
+            transfer = new TransactionRequest(BigDecimal.ONE, counterparty.getUsername(), null);
+        }
+    }
+    
+    @Benchmark
+    public TransactionResponse credit(Caller caller) {
+        return bankingService.creditMoney(caller.credit);
+    }
+    
+    @Benchmark
+    public TransactionResponse debit(Caller caller) {
+        return bankingService.debitMoney(caller.debit);
+    }
+    
+    @Benchmark
+    public TransactionResponse transfer(Caller caller) {
+        return bankingService.transferMoney(caller.transfer);
+    }
+}
\ No newline at end of file
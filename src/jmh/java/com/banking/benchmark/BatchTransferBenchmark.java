@@ -0,0 +1,78 @@
+package com.banking.benchmark;
+
+import com.banking.dto.BatchTransferResponse;
+import com.banking.dto.TransactionRequest;
+import com.banking.entity.User;
+import com.banking.service.BankingService;
+import com.banking.service.BatchTransferService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A payroll run of {@code items} transfers to {@code receivers} distinct users, posted
+ * one transfer at a time versus as a single batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BatchTransferBenchmark {
+    
+    @Param({"1000", "10000"})
+    private int items;
+    
+    @Param({"100"})
+    private int receivers;
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private BatchTransferService batchTransferService;
+    private List<TransactionRequest> payroll;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        bankingService = context.getBean(BankingService.class);
+        batchTransferService = context.getBean(BatchTransferService.class);
+        
+        User payer = BenchmarkApplication.createUser(context, "payer");
+        BenchmarkApplication.authenticate(payer);
+        bankingService.creditMoney(new TransactionRequest(new BigDecimal("1000000000.00")));
+        
+        List<String> payees = new ArrayList<>(receivers);
+        for (int i = 0; i < receivers; i++) {
+            payees.add(BenchmarkApplication.createUser(context, "payee").getUsername());
+        }
+        payroll = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            payroll.add(new TransactionRequest(BigDecimal.ONE, payees.get(i % receivers), null));
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public int perRequestLoop() {
+        int posted = 0;
+        for (TransactionRequest request : payroll) {
+            bankingService.transferMoney(request);
+            posted++;
+        }
+        return posted;
+    }
+    
+    @Benchmark
+    public BatchTransferResponse batch() {
+        return batchTransferService.transferBatch(payroll);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.banking.benchmark;
+
+import com.banking.SimpleBankingSystemApplication;
+import com.banking.entity.User;
+import com.banking.repository.UserRepository;
+import com.banking.service.UserPrincipal;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the application on a random port against an in-memory H2 database in
+ * MySQL mode, for benchmarks that go through the service and repository layers.
+ * The web layer stays up because the security configuration needs Spring MVC.
+ */
+final class BenchmarkApplication {
+    
+    private static final AtomicInteger USER_SEQUENCE = new AtomicInteger();
+    
+    private BenchmarkApplication() {}
+    
+    /**
+     * Start a context. Extra arguments override the defaults, e.g. "--app.ledger.engine=sharded".
+     * Passing -Dspring.datasource.url (plus username and password) to the forked JVM runs
+     * against that database instead of H2; its tables are recreated, so use a scratch schema.
+     */
+    static ConfigurableApplicationContext start(String... overrides) {
+        List<String> args = new ArrayList<>();
+        if (System.getProperty("spring.datasource.url") == null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime()
+                            + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+        }
+        args.addAll(List.of(
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.sql.init.mode=never",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.banking=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        args.addAll(Arrays.asList(overrides));
+        
+        return new SpringApplicationBuilder(SimpleBankingSystemApplication.class)
+                .run(args.toArray(new String[0]));
+    }
+    
+    /**
+     * Insert a user with a unique username
+     */
+    static User createUser(ConfigurableApplicationContext context, String prefix) {
+        int n = USER_SEQUENCE.incrementAndGet();
+        User user = new User(prefix + n, "{noop}benchmark", prefix + n + "@bench.local");
+        return context.getBean(UserRepository.class).save(user);
+    }
+    
+    /**
+     * Authenticate the calling thread as the given user
+     */
+    static void authenticate(User user) {
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
\ No newline at end of file
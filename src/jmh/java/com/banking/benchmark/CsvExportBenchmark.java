@@ -0,0 +1,60 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import com.banking.util.CsvExportUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV rendering of transaction history, built in memory and streamed to a writer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvExportBenchmark {
+    
+    @Param({"1000", "100000"})
+    private int rows;
+    
+    private final CsvExportUtil csvExportUtil = new CsvExportUtil();
+    private List<TransactionResponse> transactions;
+    
+    @Setup
+    public void setUp() {
+        transactions = new ArrayList<>(rows);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 0, 0);
+        TransactionType[] types = TransactionType.values();
+        for (int i = 0; i < rows; i++) {
+            TransactionType type = types[i % types.length];
+            transactions.add(new TransactionResponse(
+                    (long) i,
+                    type == TransactionType.CREDIT ? null : "alice",
+                    type == TransactionType.DEBIT ? null : "bob",
+                    BigDecimal.valueOf(i % 10000, 2),
+                    timestamp.plusSeconds(i),
+                    type,
+                    i % 10 == 0 ? "Rent, \"March\"" : "Transfer from alice to bob"));
+        }
+    }
+    
+    @Benchmark
+    public String exportToString() {
+        return csvExportUtil.exportTransactionsToCsv(transactions);
+    }
+    
+    @Benchmark
+    public long streamToWriter() throws IOException {
+        return csvExportUtil.writeTransactionsCsv(transactions.iterator(), Writer.nullWriter());
+    }
+}
\ No newline at end of file
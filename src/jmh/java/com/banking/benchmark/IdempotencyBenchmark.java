@@ -0,0 +1,78 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.entity.User;
+import com.banking.service.BankingService;
+import com.banking.service.IdempotencyService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a retried transfer that is answered from the idempotency cache, against a
+ * transfer that is posted, with and without a fresh key
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdempotencyBenchmark {
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private IdempotencyService idempotencyService;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        bankingService = context.getBean(BankingService.class);
+        idempotencyService = context.getBean(IdempotencyService.class);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        private TransactionRequest transfer;
+        private long nextKey;
+        
+        @Setup
+        public void setUp(IdempotencyBenchmark benchmark) {
+            User account = BenchmarkApplication.createUser(benchmark.context, "sender");
+            User counterparty = BenchmarkApplication.createUser(benchmark.context, "receiver");
+            
+            BenchmarkApplication.authenticate(account);
+            benchmark.bankingService.creditMoney(new TransactionRequest(new BigDecimal("1000000000.00")));
+            
+            transfer = new TransactionRequest(BigDecimal.ONE, counterparty.getUsername(), null);
+            // The retried key, posted once here
+            benchmark.idempotencyService.execute("retried", "transfer", transfer,
+                    () -> benchmark.bankingService.transferMoney(transfer));
+        }
+    }
+    
+    @Benchmark
+    public Object retried(Caller caller) {
+        return idempotencyService.execute("retried", "transfer", caller.transfer,
+                () -> bankingService.transferMoney(caller.transfer));
+    }
+    
+    @Benchmark
+    public Object freshKey(Caller caller) {
+        return idempotencyService.execute("key-" + caller.nextKey++, "transfer", caller.transfer,
+                () -> bankingService.transferMoney(caller.transfer));
+    }
+    
+    @Benchmark
+    public Object withoutKey(Caller caller) {
+        return bankingService.transferMoney(caller.transfer);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.banking.benchmark;
+
+import com.banking.dto.ApiResponse;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of single transactions and history pages, configured the way
+ * Spring MVC configures its message converter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    
+    @Param({"50"})
+    private int pageSize;
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse transactionResponse;
+    private ApiResponse historyPage;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<TransactionResponse> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(new TransactionResponse((long) i, "alice", "bob", BigDecimal.valueOf(1999, 2),
+                    timestamp.plusMinutes(i), TransactionType.TRANSFER, "Transfer from alice to bob"));
+        }
+        
+        transactionResponse = ApiResponse.success("Money transferred successfully", page.get(0));
+        historyPage = ApiResponse.success("Transactions retrieved successfully", page, "MjAyNC0wMS0wMVQwMDowMCw1MA");
+    }
+    
+    @Benchmark
+    public byte[] transaction() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactionResponse);
+    }
+    
+    @Benchmark
+    public byte[] historyPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(historyPage);
+    }
+}
\ No newline at end of file
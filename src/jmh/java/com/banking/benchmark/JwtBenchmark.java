@@ -0,0 +1,49 @@
+package com.banking.benchmark;
+
+import com.banking.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token generation and verification in JwtUtils, with and without the verified-token cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+    
+    private JwtUtils jwtUtils;
+    private String token;
+    
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret",
+                "benchmarkSecretKey0123456789012345678901234567890123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "cacheEnabled", cacheEnabled);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 10000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxTtlSeconds", 300L);
+        jwtUtils.init();
+        
+        token = jwtUtils.generateTokenFromUsername("alice");
+    }
+    
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateTokenFromUsername("alice");
+    }
+    
+    @Benchmark
+    public Object parseAndValidate() {
+        return jwtUtils.parseAndValidate(token);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.banking.benchmark;
+
+import com.banking.entity.User;
+import com.banking.service.LedgerExport;
+import com.banking.service.LedgerExportService;
+import com.banking.service.TransactionArchiver;
+import com.banking.util.TimeOrderedIds;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full bulk export of a seeded ledger, two thirds of it archived, with one worker and
+ * with several. Each invocation renders every row to disk and deletes the file again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LedgerExportBenchmark {
+    
+    @Param({"1", "4"})
+    private int parallelism;
+    
+    @Param({"500000"})
+    private int rows;
+    
+    @Param({"100"})
+    private int accounts;
+    
+    private ConfigurableApplicationContext context;
+    private LedgerExportService ledgerExportService;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--app.export.bulk.parallelism=" + parallelism,
+                "--app.export.bulk.segment-rows=50000");
+        ledgerExportService = context.getBean(LedgerExportService.class);
+        
+        List<Long> ids = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            User user = BenchmarkApplication.createUser(context, "account");
+            ids.add(user.getId());
+        }
+        seed(context.getBean(JdbcTemplate.class), ids);
+        context.getBean(TransactionArchiver.class).archiveOlderThan(LocalDateTime.now().minusDays(365));
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    private void seed(JdbcTemplate jdbcTemplate, List<Long> ids) {
+        Random random = new Random(42);
+        LocalDateTime end = LocalDateTime.now();
+        long spanSeconds = 3L * 365 * 86400;
+        List<Object[]> batch = new ArrayList<>(10000);
+        
+        for (int i = 0; i < rows; i++) {
+            Long sender = ids.get(random.nextInt(ids.size()));
+            Long receiver = ids.get(random.nextInt(ids.size()));
+            if (sender.equals(receiver)) {
+                receiver = null;
+            }
+            batch.add(new Object[] {TimeOrderedIds.next(), sender, receiver, random.nextInt(100000) / 100.0,
+                    Timestamp.valueOf(end.minusSeconds(spanSeconds - i * spanSeconds / rows)),
+                    receiver == null ? "DEBIT" : "TRANSFER", "Seeded transaction"});
+            
+            if (batch.size() == 10000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    @Benchmark
+    public long export() throws InterruptedException, IOException {
+        LedgerExport export = ledgerExportService.start();
+        while (export.getStatus() == LedgerExport.Status.RUNNING) {
+            Thread.sleep(5);
+        }
+        if (export.getStatus() != LedgerExport.Status.COMPLETED) {
+            throw new IllegalStateException(export.getError());
+        }
+        ledgerExportService.delete(export.getId());
+        return export.getBytes();
+    }
+}
\ No newline at end of file
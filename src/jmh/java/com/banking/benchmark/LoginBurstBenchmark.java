@@ -0,0 +1,124 @@
+package com.banking.benchmark;
+
+import com.banking.entity.User;
+import com.banking.repository.UserRepository;
+import com.banking.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance reads over HTTP while other clients log in as fast as they can, with password
+ * hashing on the bounded pool and with a pool as large as the login burst, which behaves
+ * like hashing on the request threads. The balance latency is the number to compare;
+ * logins are counted by status, so logins refused with 503 show up separately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBurstBenchmark {
+    
+    private static final String PASSWORD = "password123";
+    
+    @Param({"true", "false"})
+    private boolean bounded;
+    
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private String loginBody;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--app.rate-limit.enabled=false",
+                "--app.security.password-hashing.threads=" + (bounded ? 0 : 64),
+                "--app.security.password-hashing.queue-capacity=" + (bounded ? 16 : 1024));
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        
+        User user = BenchmarkApplication.createUser(context, "login");
+        user.setPassword(context.getBean(PasswordEncoder.class).encode(PASSWORD));
+        context.getBean(UserRepository.class).save(user);
+        loginBody = "{\"username\":\"" + user.getUsername() + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Reader {
+        
+        private HttpRequest balance;
+        
+        @Setup
+        public void setUp(LoginBurstBenchmark benchmark) {
+            User user = BenchmarkApplication.createUser(benchmark.context, "reader");
+            String token = benchmark.context.getBean(JwtUtils.class).generateTokenFromUsername(user.getUsername());
+            balance = HttpRequest.newBuilder(URI.create(benchmark.baseUrl + "/account/balance"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Login {
+        
+        private HttpRequest login;
+        
+        @Setup
+        public void setUp(LoginBurstBenchmark benchmark) {
+            login = HttpRequest.newBuilder(URI.create(benchmark.baseUrl + "/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(benchmark.loginBody))
+                    .build();
+        }
+    }
+    
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Logins {
+        
+        public long served;
+        public long rejected;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            served = 0;
+            rejected = 0;
+        }
+    }
+    
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(2)
+    public int balance(Reader reader) throws IOException, InterruptedException {
+        return client.send(reader.balance, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+    
+    @Benchmark
+    @Group("burst")
+    @GroupThreads(16)
+    public int login(Login login, Logins logins) throws IOException, InterruptedException {
+        int status = client.send(login.login, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 200) {
+            logins.served++;
+        } else {
+            logins.rejected++;
+        }
+        return status;
+    }
+}
\ No newline at end of file
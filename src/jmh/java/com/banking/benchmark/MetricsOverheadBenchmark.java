@@ -0,0 +1,66 @@
+package com.banking.benchmark;
+
+import com.banking.dto.BalanceResponse;
+import com.banking.dto.TransactionRequest;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.User;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the metrics on the service hot path: the same operations with the timed
+ * aspect and all meters enabled, and with both switched off
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    
+    @Param({"false", "true"})
+    private boolean metrics;
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--management.observations.annotations.enabled=" + metrics,
+                "--management.metrics.enable.all=" + metrics);
+        bankingService = context.getBean(BankingService.class);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        private final TransactionRequest credit = new TransactionRequest(BigDecimal.ONE);
+        
+        @Setup
+        public void setUp(MetricsOverheadBenchmark benchmark) {
+            User account = BenchmarkApplication.createUser(benchmark.context, "metered");
+            BenchmarkApplication.authenticate(account);
+        }
+    }
+    
+    @Benchmark
+    public BalanceResponse balance(Caller caller) {
+        return bankingService.getBalance();
+    }
+    
+    @Benchmark
+    public TransactionResponse credit(Caller caller) {
+        return bankingService.creditMoney(caller.credit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.banking.benchmark;
+
+import com.banking.entity.User;
+import com.banking.security.RateLimitFilter;
+import com.banking.security.RateLimiter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the rate limiter: taking a token from one hot bucket, from one of
+ * many buckets, and being refused, both on the limiter alone and through the filter with
+ * a signed-in user. Reads are limited so loosely that they never run out; writes are
+ * limited so tightly that every one after the first is refused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitBenchmark {
+    
+    @Param({"10000"})
+    private int clients;
+    
+    private ConfigurableApplicationContext context;
+    private RateLimiter rateLimiter;
+    private RateLimitFilter filter;
+    private User user;
+    private String[] keys;
+    
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        context = BenchmarkApplication.start(
+                "--app.rate-limit.read.per-second=1000000000",
+                "--app.rate-limit.read.burst=1000000000",
+                "--app.rate-limit.write.per-second=0.001",
+                "--app.rate-limit.write.burst=1");
+        rateLimiter = context.getBean(RateLimiter.class);
+        filter = new RateLimitFilter(rateLimiter, context.getBean(ObjectMapper.class));
+        user = BenchmarkApplication.createUser(context, "client");
+        
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "client" + i;
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        private MockHttpServletRequest read;
+        private MockHttpServletRequest write;
+        
+        @Setup
+        public void setUp(RateLimitBenchmark benchmark) {
+            BenchmarkApplication.authenticate(benchmark.user);
+            read = new MockHttpServletRequest("GET", "/account/balance");
+            write = new MockHttpServletRequest("POST", "/account/transfer");
+        }
+    }
+    
+    @Benchmark
+    public long acquireHotKey() {
+        return rateLimiter.tryAcquire(RateLimiter.Endpoint.READ, "client0");
+    }
+    
+    @Benchmark
+    public long acquireManyKeys() {
+        return rateLimiter.tryAcquire(RateLimiter.Endpoint.READ, keys[ThreadLocalRandom.current().nextInt(clients)]);
+    }
+    
+    @Benchmark
+    public long acquireRefused() {
+        return rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "client0");
+    }
+    
+    @Benchmark
+    public MockFilterChain filterAllowed(Caller caller) throws ServletException, IOException {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(caller.read, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+    
+    @Benchmark
+    public MockHttpServletResponse filterRefused(Caller caller) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(caller.write, response, new MockFilterChain());
+        return response;
+    }
+}
\ No newline at end of file
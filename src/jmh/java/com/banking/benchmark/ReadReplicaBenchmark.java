@@ -0,0 +1,109 @@
+package com.banking.benchmark;
+
+import com.banking.config.ReadWriteRoutingDataSource;
+import com.banking.dto.TransactionPage;
+import com.banking.dto.TransactionRequest;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.User;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * History reads with and without a read replica, on two embedded H2 databases: the
+ * replica is a snapshot of the primary taken after seeding, so it lags from then on.
+ * {@code postThenRead} checks the freshness guard, failing if a user's own posting is
+ * missing from the history read right after it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadReplicaBenchmark {
+    
+    private static final int PAGE_SIZE = 50;
+    
+    @Param({"false", "true"})
+    private boolean replica;
+    
+    @Param({"1000"})
+    private int postings;
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private User account;
+    
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        String replicaUrl = "jdbc:h2:mem:replica-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        context = BenchmarkApplication.start(
+                "--app.datasource.replica.enabled=" + replica,
+                "--app.datasource.replica.url=" + replicaUrl,
+                "--app.datasource.replica.username=sa",
+                "--app.datasource.replica.password=");
+        bankingService = context.getBean(BankingService.class);
+        
+        account = BenchmarkApplication.createUser(context, "reader");
+        BenchmarkApplication.authenticate(account);
+        for (int i = 0; i < postings; i++) {
+            bankingService.creditMoney(new TransactionRequest(BigDecimal.ONE));
+        }
+        
+        // The replica pool connects on first use, so the snapshot is in place before any read
+        Path script = Files.createTempFile("replica", ".sql");
+        context.getBean(JdbcTemplate.class).execute("SCRIPT TO '" + script + "'");
+        try (Connection connection = DriverManager.getConnection(replicaUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM '" + script + "'");
+        }
+        Files.delete(script);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        if (replica) {
+            ReadWriteRoutingDataSource routing = context.getBean(ReadWriteRoutingDataSource.class);
+            System.out.println("Read-only transactions: " + routing.getReplicaReads() + " on the replica, "
+                    + routing.getPrimaryReads() + " on the primary");
+        }
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        @Setup
+        public void setUp(ReadReplicaBenchmark benchmark) {
+            BenchmarkApplication.authenticate(benchmark.account);
+        }
+    }
+    
+    @Benchmark
+    public TransactionPage history(Caller caller) {
+        return bankingService.getTransactionPage(null, null, null, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public TransactionPage postThenRead(Caller caller) {
+        TransactionResponse posted = bankingService.creditMoney(new TransactionRequest(BigDecimal.ONE));
+        TransactionPage page = bankingService.getTransactionPage(null, null, null, PAGE_SIZE);
+        if (page.getTransactions().stream().noneMatch(t -> t.getId().equals(posted.getId()))) {
+            throw new IllegalStateException("Posting " + posted.getId() + " missing from the history read after it");
+        }
+        return page;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.banking.benchmark;
+
+import com.banking.dto.ApiResponse;
+import com.banking.dto.TransactionRequest;
+import com.banking.entity.User;
+import com.banking.exception.BankingErrors;
+import com.banking.exception.BankingException;
+import com.banking.exception.GlobalExceptionHandler;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejection path against a drained account. {@code rejectedDebit} and
+ * {@code rejectedTransfer} go through the service and the exception handler;
+ * {@code stackTraceRejection} and {@code preallocatedRejection} isolate the cost of the
+ * exception itself, thrown from the stack depth of a service call inside a request.
+ * Run with {@code -prof gc} to see the allocation per rejection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectionBenchmark {
+    
+    // Roughly the frames between Tomcat's worker loop and a service method
+    private static final int STACK_DEPTH = 120;
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private GlobalExceptionHandler exceptionHandler;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        bankingService = context.getBean(BankingService.class);
+        exceptionHandler = context.getBean(GlobalExceptionHandler.class);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        private final TransactionRequest debit = new TransactionRequest(BigDecimal.ONE);
+        private final TransactionRequest transfer = new TransactionRequest(BigDecimal.ONE, "nobody", null);
+        
+        @Setup
+        public void setUp(RejectionBenchmark benchmark) {
+            // Created with a zero balance
+            User account = BenchmarkApplication.createUser(benchmark.context, "drained");
+            BenchmarkApplication.authenticate(account);
+        }
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponse> rejectedDebit(Caller caller) {
+        try {
+            bankingService.debitMoney(caller.debit);
+            throw new IllegalStateException("Debit from a drained account succeeded");
+        } catch (BankingException e) {
+            return exceptionHandler.handleBankingException(e);
+        }
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponse> rejectedTransfer(Caller caller) {
+        try {
+            bankingService.transferMoney(caller.transfer);
+            throw new IllegalStateException("Transfer to an unknown user succeeded");
+        } catch (BankingException e) {
+            return exceptionHandler.handleBankingException(e);
+        }
+    }
+    
+    /**
+     * How rejections were raised and answered before: a new exception with a stack
+     * trace, and a concatenated message
+     */
+    @Benchmark
+    public ApiResponse stackTraceRejection() {
+        try {
+            throwAtDepth(STACK_DEPTH, false);
+            return null;
+        } catch (RuntimeException e) {
+            return ApiResponse.error("Debit failed: " + e.getMessage());
+        }
+    }
+    
+    @Benchmark
+    public ResponseEntity<ApiResponse> preallocatedRejection() {
+        try {
+            throwAtDepth(STACK_DEPTH, true);
+            return null;
+        } catch (BankingException e) {
+            return exceptionHandler.handleBankingException(e);
+        }
+    }
+    
+    private static void throwAtDepth(int depth, boolean preallocated) {
+        if (depth > 0) {
+            throwAtDepth(depth - 1, preallocated);
+            return;
+        }
+        if (preallocated) {
+            throw BankingErrors.INSUFFICIENT_BALANCE;
+        }
+        throw new RuntimeException("Insufficient balance");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.banking.benchmark;
+
+import com.banking.entity.User;
+import com.banking.security.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many concurrent clients reading their balance over HTTP, with requests handled on
+ * platform or virtual threads, and with or without the admission gate in front of the
+ * JDBC pool. Responses are counted per status, so rejected (503) requests show up
+ * separately from served ones.
+ * <p>
+ * Virtual threads need a Java 21+ runtime; on older runtimes the "virtual" runs fall
+ * back to platform threads and measure the same thing twice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(256)
+public class RequestThreadingBenchmark {
+    
+    @Param({"platform", "virtual"})
+    private String threading;
+    
+    @Param({"true", "false"})
+    private boolean admission;
+    
+    @Param({"10"})
+    private int poolSize;
+    
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--spring.threads.virtual.enabled=" + threading.equals("virtual"),
+                "--app.admission.enabled=" + admission,
+                "--app.rate-limit.enabled=false",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        private HttpRequest balance;
+        
+        @Setup
+        public void setUp(RequestThreadingBenchmark benchmark) {
+            User user = BenchmarkApplication.createUser(benchmark.context, "client");
+            String token = benchmark.context.getBean(JwtUtils.class).generateTokenFromUsername(user.getUsername());
+            balance = HttpRequest.newBuilder(URI.create(benchmark.baseUrl + "/account/balance"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build();
+        }
+    }
+    
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Responses {
+        
+        public long served;
+        public long rejected;
+        public long failed;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            served = 0;
+            rejected = 0;
+            failed = 0;
+        }
+    }
+    
+    @Benchmark
+    public int balance(Caller caller, Responses responses) throws IOException, InterruptedException {
+        int status = client.send(caller.balance, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 200) {
+            responses.served++;
+        } else if (status == 503) {
+            responses.rejected++;
+        } else {
+            responses.failed++;
+        }
+        return status;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.banking.benchmark;
+
+import com.banking.dto.SummaryResponse;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.RollupPeriod;
+import com.banking.entity.TransactionType;
+import com.banking.entity.User;
+import com.banking.service.BankingService;
+import com.banking.service.RollupBackfill;
+import com.banking.util.TimeOrderedIds;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A year of monthly totals for one account, read from the rollup table and, the way
+ * clients had to before, computed from the full history of the range. History is
+ * seeded with JDBC and its rollups are built by the backfill job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementSummaryBenchmark {
+    
+    @Param({"20000"})
+    private int postings;
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private User account;
+    private LocalDate from;
+    private LocalDate to;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        bankingService = context.getBean(BankingService.class);
+        account = BenchmarkApplication.createUser(context, "statement");
+        User counterparty = BenchmarkApplication.createUser(context, "counterparty");
+        
+        to = LocalDate.now();
+        from = to.withDayOfMonth(1).minusMonths(11);
+        seed(context.getBean(JdbcTemplate.class), counterparty.getId());
+        context.getBean(RollupBackfill.class).backfill();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    private void seed(JdbcTemplate jdbcTemplate, Long counterpartyId) {
+        Random random = new Random(42);
+        LocalDateTime start = from.atStartOfDay();
+        long spanSeconds = (to.toEpochDay() - from.toEpochDay() + 1) * 86400;
+        List<Object[]> batch = new ArrayList<>(10000);
+        
+        for (int i = 0; i < postings; i++) {
+            TransactionType type = TransactionType.values()[random.nextInt(3)];
+            boolean outgoing = type == TransactionType.DEBIT || (type == TransactionType.TRANSFER && random.nextBoolean());
+            Long sender = type == TransactionType.CREDIT ? null : outgoing ? account.getId() : counterpartyId;
+            Long receiver = type == TransactionType.DEBIT ? null : outgoing ? counterpartyId : account.getId();
+            batch.add(new Object[] {TimeOrderedIds.next(), sender, receiver, random.nextInt(100000) / 100.0,
+                    Timestamp.valueOf(start.plusSeconds(i * spanSeconds / postings)),
+                    type.name(), "Seeded transaction"});
+            
+            if (batch.size() == 10000 || i == postings - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        @Setup
+        public void setUp(StatementSummaryBenchmark benchmark) {
+            BenchmarkApplication.authenticate(benchmark.account);
+        }
+    }
+    
+    @Benchmark
+    public List<SummaryResponse> summaryFromRollups(Caller caller) {
+        return bankingService.getStatementSummary(from, to, RollupPeriod.MONTH);
+    }
+    
+    @Benchmark
+    public Map<YearMonth, BigDecimal[]> summaryFromHistory(Caller caller) {
+        String username = account.getUsername();
+        Map<YearMonth, BigDecimal[]> months = new TreeMap<>();
+        for (TransactionResponse transaction : bankingService.getTransactionHistory(from, to)) {
+            BigDecimal[] totals = months.computeIfAbsent(YearMonth.from(transaction.getTimestamp()), month ->
+                    new BigDecimal[] {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+            int column = transaction.getType() == TransactionType.CREDIT ? 0
+                    : transaction.getType() == TransactionType.DEBIT ? 1
+                    : username.equals(transaction.getReceiverUsername()) ? 2 : 3;
+            totals[column] = totals[column].add(transaction.getAmount());
+        }
+        return months;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionPage;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.User;
+import com.banking.service.BankingService;
+import com.banking.service.TransactionArchiver;
+import com.banking.util.TimeOrderedIds;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * History reads over three years of seeded transactions, with every row in the hot
+ * table and with rows older than 90 days moved to the archive. Recent reads should
+ * only see the smaller hot table; the full history pays for reading both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionArchiveBenchmark {
+    
+    private static final int PAGE_SIZE = 50;
+    private static final int HORIZON_DAYS = 90;
+    
+    @Param({"false", "true"})
+    private boolean archived;
+    
+    @Param({"300000"})
+    private int rows;
+    
+    @Param({"100"})
+    private int accounts;
+    
+    private ConfigurableApplicationContext context;
+    private BankingService bankingService;
+    private User account;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        bankingService = context.getBean(BankingService.class);
+        
+        List<Long> ids = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            User user = BenchmarkApplication.createUser(context, "account");
+            ids.add(user.getId());
+            if (account == null) {
+                account = user;
+            }
+        }
+        seed(context.getBean(JdbcTemplate.class), ids);
+        
+        if (archived) {
+            long moved = context.getBean(TransactionArchiver.class)
+                    .archiveOlderThan(LocalDateTime.now().minusDays(HORIZON_DAYS));
+            System.out.println("Archived " + moved + " of " + rows + " transactions");
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    private void seed(JdbcTemplate jdbcTemplate, List<Long> ids) {
+        Random random = new Random(42);
+        LocalDateTime end = LocalDateTime.now();
+        long spanSeconds = 3L * 365 * 86400;
+        List<Object[]> batch = new ArrayList<>(10000);
+        
+        for (int i = 0; i < rows; i++) {
+            Long sender = ids.get(random.nextInt(ids.size()));
+            Long receiver = ids.get(random.nextInt(ids.size()));
+            if (sender.equals(receiver)) {
+                receiver = null;
+            }
+            batch.add(new Object[] {TimeOrderedIds.next(), sender, receiver, random.nextInt(100000) / 100.0,
+                    Timestamp.valueOf(end.minusSeconds(spanSeconds - i * spanSeconds / rows)),
+                    receiver == null ? "DEBIT" : "TRANSFER", "Seeded transaction"});
+            
+            if (batch.size() == 10000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        @Setup
+        public void setUp(TransactionArchiveBenchmark benchmark) {
+            BenchmarkApplication.authenticate(benchmark.account);
+        }
+    }
+    
+    @Benchmark
+    public TransactionPage firstPage(Caller caller) {
+        return bankingService.getTransactionPage(null, null, null, PAGE_SIZE);
+    }
+    
+    @Benchmark
+    public List<TransactionResponse> lastThirtyDays(Caller caller) {
+        LocalDate today = LocalDate.now();
+        return bankingService.getTransactionHistory(today.minusDays(30), today);
+    }
+    
+    @Benchmark
+    public List<TransactionResponse> fullHistory(Caller caller) {
+        return bankingService.getTransactionHistory();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.User;
+import com.banking.repository.TransactionRepository;
+import com.banking.util.TimeOrderedIds;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-account history reads over a seeded transactions table. Compares the single
+ * OR query the history used to run with the UNION ALL of index range scans that
+ * replaced it. Seed a few million rows with -p rows=3000000 for a MySQL-sized table.
+ * After seeding, the EXPLAIN output of both first-page queries is printed, so a run
+ * against MySQL shows the plan change next to the latency difference; H2's planner
+ * treats the two queries alike.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionHistoryBenchmark {
+    
+    private static final int PAGE_SIZE = 50;
+    
+    // The history query before it was split per side
+    private static final String OR_QUERY = "SELECT new com.banking.dto.TransactionResponse(" +
+            "t.id, s.username, r.username, t.amount, t.timestamp, t.type, t.description) " +
+            "FROM Transaction t LEFT JOIN t.sender s LEFT JOIN t.receiver r " +
+            "WHERE t.sender.id = :userId OR t.receiver.id = :userId ORDER BY t.timestamp DESC, t.id DESC";
+    
+    // The same first page in SQL, for EXPLAIN
+    private static final String OR_SQL = "SELECT t.id, s.username, r.username, t.amount, t.timestamp, t.type, " +
+            "t.description FROM transactions t LEFT JOIN users s ON s.id = t.sender_id " +
+            "LEFT JOIN users r ON r.id = t.receiver_id WHERE t.sender_id = ? OR t.receiver_id = ? " +
+            "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?";
+    
+    // Transaction.findFirstPageByUserId
+    private static final String UNION_ALL_SQL = "SELECT h.id, s.username, r.username, h.amount, h.timestamp, " +
+            "h.type, h.description FROM ((" +
+            "SELECT t.* FROM transactions t WHERE t.sender_id = ? ORDER BY t.timestamp DESC, t.id DESC LIMIT ?" +
+            ") UNION ALL (" +
+            "SELECT t.* FROM transactions t WHERE t.receiver_id = ? AND (t.sender_id IS NULL OR t.sender_id <> ?) " +
+            "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?" +
+            ")) h LEFT JOIN users s ON s.id = h.sender_id LEFT JOIN users r ON r.id = h.receiver_id " +
+            "ORDER BY h.timestamp DESC, h.id DESC LIMIT ?";
+    
+    @Param({"1000000"})
+    private int rows;
+    
+    @Param({"1000"})
+    private int accounts;
+    
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private EntityManagerFactory entityManagerFactory;
+    private TransactionTemplate readOnly;
+    private Long userId;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        
+        List<Long> ids = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            User user = BenchmarkApplication.createUser(context, "account");
+            ids.add(user.getId());
+        }
+        userId = ids.get(0);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        seed(jdbcTemplate, ids);
+        
+        int limit = PAGE_SIZE + 1;
+        explain(jdbcTemplate, "OR query", OR_SQL, userId, userId, limit);
+        explain(jdbcTemplate, "UNION ALL query", UNION_ALL_SQL, userId, limit, userId, userId, limit, limit);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    private void seed(JdbcTemplate jdbcTemplate, List<Long> ids) {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> batch = new ArrayList<>(10000);
+        
+        for (int i = 0; i < rows; i++) {
+            Long sender = ids.get(random.nextInt(ids.size()));
+            Long receiver = ids.get(random.nextInt(ids.size()));
+            if (sender.equals(receiver)) {
+                receiver = null;
+            }
+            batch.add(new Object[] {TimeOrderedIds.next(), sender, receiver, random.nextInt(100000) / 100.0,
+                    Timestamp.valueOf(start.plusSeconds(i * 30L + random.nextInt(30))),
+                    receiver == null ? "DEBIT" : "TRANSFER", "Seeded transaction"});
+            
+            if (batch.size() == 10000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private void explain(JdbcTemplate jdbcTemplate, String name, String sql, Object... args) {
+        System.out.println("EXPLAIN " + name + " (" + rows + " rows):");
+        for (Map<String, Object> row : jdbcTemplate.queryForList("EXPLAIN " + sql, args)) {
+            System.out.println("  " + row.values());
+        }
+    }
+    
+    @Benchmark
+    public List<TransactionResponse> firstPageOrQuery() {
+        return readOnly.execute(status -> {
+            EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+            return entityManager.createQuery(OR_QUERY, TransactionResponse.class)
+                    .setParameter("userId", userId)
+                    .setMaxResults(PAGE_SIZE + 1)
+                    .getResultList();
+        });
+    }
+    
+    @Benchmark
+    public List<TransactionResponse> firstPageUnionAll() {
+        return readOnly.execute(status -> transactionRepository.findFirstPageByUserId(userId, PAGE_SIZE + 1));
+    }
+    
+    @Benchmark
+    public List<TransactionResponse> fullHistoryUnionAll() {
+        return readOnly.execute(status -> transactionRepository.findHistoryByUserId(userId));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.ImportStatus;
+import com.banking.entity.TransactionImport;
+import com.banking.entity.TransactionType;
+import com.banking.entity.User;
+import com.banking.service.TransactionImportService;
+import com.banking.util.CsvExportUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full bulk import of a generated CSV file, with one worker and with several. Each
+ * invocation writes every row, adjusts the balances and rebuilds the rollups, so the
+ * ledger grows by {@code rows} per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TransactionImportBenchmark {
+    
+    @Param({"1", "4"})
+    private int parallelism;
+    
+    @Param({"100000"})
+    private int rows;
+    
+    @Param({"100"})
+    private int accounts;
+    
+    private ConfigurableApplicationContext context;
+    private TransactionImportService transactionImportService;
+    private byte[] csv;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--app.import.parallelism=" + parallelism,
+                "--app.import.chunk-size-bytes=1048576");
+        transactionImportService = context.getBean(TransactionImportService.class);
+        
+        List<String> usernames = new ArrayList<>(accounts);
+        for (int i = 0; i < accounts; i++) {
+            User user = BenchmarkApplication.createUser(context, "account");
+            usernames.add(user.getUsername());
+        }
+        csv = render(context.getBean(CsvExportUtil.class), usernames);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    private byte[] render(CsvExportUtil csvExportUtil, List<String> usernames) {
+        Random random = new Random(42);
+        LocalDateTime end = LocalDateTime.now();
+        long spanSeconds = 3L * 365 * 86400;
+        StringBuilder file = new StringBuilder(rows * 80);
+        file.append(csvExportUtil.getHeader());
+        
+        for (int i = 0; i < rows; i++) {
+            String sender = usernames.get(random.nextInt(usernames.size()));
+            String receiver = usernames.get(random.nextInt(usernames.size()));
+            TransactionType type = TransactionType.TRANSFER;
+            if (sender.equals(receiver)) {
+                receiver = null;
+                type = TransactionType.DEBIT;
+            }
+            csvExportUtil.appendRow(file, new TransactionResponse(i + 1L, sender, receiver,
+                    BigDecimal.valueOf(random.nextInt(100000), 2),
+                    end.minusSeconds(spanSeconds - i * spanSeconds / rows).withNano(0),
+                    type, "Migrated transaction"));
+        }
+        return file.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public long importFile() throws InterruptedException, IOException {
+        long id = transactionImportService.start(new ByteArrayInputStream(csv)).getId();
+        TransactionImport transactionImport = transactionImportService.get(id);
+        while (transactionImport.getStatus() == ImportStatus.RUNNING) {
+            Thread.sleep(20);
+            transactionImport = transactionImportService.get(id);
+        }
+        if (transactionImport.getStatus() != ImportStatus.COMPLETED) {
+            throw new IllegalStateException(transactionImport.getError());
+        }
+        return transactionImport.getRowsPerSecond();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.banking.benchmark;
+
+import com.banking.entity.Transaction;
+import com.banking.entity.TransactionType;
+import com.banking.entity.User;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persisting a thousand Transaction entities through JPA in one database transaction,
+ * which is where the id generation strategy decides whether inserts can be batched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionInsertBenchmark {
+    
+    private static final int ROWS = 1000;
+    
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long senderId;
+    private Long receiverId;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        senderId = BenchmarkApplication.createUser(context, "sender").getId();
+        receiverId = BenchmarkApplication.createUser(context, "receiver").getId();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    /**
+     * Operations are reported per row, so the score reads as inserts per second
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int saveAll() {
+        return transactionTemplate.execute(status -> {
+            UserRepository users = context.getBean(UserRepository.class);
+            User sender = users.getReferenceById(senderId);
+            User receiver = users.getReferenceById(receiverId);
+            
+            List<Transaction> batch = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                batch.add(new Transaction(sender, receiver, BigDecimal.ONE, TransactionType.TRANSFER, "Benchmark"));
+            }
+            return transactionRepository.saveAll(batch).size();
+        });
+    }
+}
\ No newline at end of file
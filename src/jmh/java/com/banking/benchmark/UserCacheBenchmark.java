@@ -0,0 +1,72 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.User;
+import com.banking.repository.UserRepository;
+import com.banking.service.BankingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Username resolution with and without the second-level cache: a bare lookup, and a
+ * transfer, which resolves the receiver by username and then evicts it after commit
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserCacheBenchmark {
+    
+    @Param({"false", "true"})
+    private boolean cache;
+    
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private BankingService bankingService;
+    private User receiver;
+    
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cache);
+        userRepository = context.getBean(UserRepository.class);
+        bankingService = context.getBean(BankingService.class);
+        receiver = BenchmarkApplication.createUser(context, "receiver");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @State(Scope.Thread)
+    public static class Caller {
+        
+        private TransactionRequest transfer;
+        
+        @Setup
+        public void setUp(UserCacheBenchmark benchmark) {
+            User account = BenchmarkApplication.createUser(benchmark.context, "sender");
+            BenchmarkApplication.authenticate(account);
+            benchmark.bankingService.creditMoney(new TransactionRequest(new BigDecimal("1000000000.00")));
+            transfer = new TransactionRequest(BigDecimal.ONE, benchmark.receiver.getUsername(), null);
+        }
+    }
+    
+    @Benchmark
+    public Optional<User> findByUsername() {
+        return userRepository.findByUsername(receiver.getUsername());
+    }
+    
+    @Benchmark
+    public TransactionResponse transfer(Caller caller) {
+        return bankingService.transferMoney(caller.transfer);
+    }
+}
\ No newline at end of file
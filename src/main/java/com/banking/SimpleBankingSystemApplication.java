@@ -2,11 +2,13 @@ package com.banking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Simple Banking System
  */
 @SpringBootApplication
+@EnableScheduling
 public class SimpleBankingSystemApplication {
     
     public static void main(String[] args) {
@@ -0,0 +1,108 @@
+package com.banking.config;
+
+import com.banking.service.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions of authenticated users to the replica and everything
+ * else to the primary. Must sit behind a LazyConnectionDataSourceProxy, so that the
+ * connection is only chosen once the transaction's read-only flag is known.
+ * <p>
+ * Freshness guard: a user whose read-write transaction committed within the last
+ * {@code max-lag-ms} reads from the primary, so their own postings are never missing
+ * from what they read back. Requests without a user (sign-in, sign-up, loading the
+ * principal) always use the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    
+    // Users with a recent write; present means "read from the primary"
+    private final Cache<Long, Boolean> recentWriters;
+    
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, long maxLagMs, long maxTrackedUsers) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofMillis(maxLagMs))
+                .build();
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = currentUserId();
+        
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null) {
+                recordWrite(userId);
+            }
+            return PRIMARY;
+        }
+        
+        if (userId == null || recentWriters.getIfPresent(userId) != null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        logger.debug("Routing read-only transaction of user {} to the replica", userId);
+        return REPLICA;
+    }
+    
+    /**
+     * Mark the user as a recent writer, once more after commit so that the lag window
+     * starts when the change becomes visible on the primary
+     */
+    private void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            });
+        }
+    }
+    
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+    
+    /**
+     * Number of read-only transactions kept on the primary
+     */
+    public long getPrimaryReads() {
+        return primaryReads.sum();
+    }
+    
+    /**
+     * Number of read-only transactions served by the replica
+     */
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+}
\ No newline at end of file
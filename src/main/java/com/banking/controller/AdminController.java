@@ -0,0 +1,126 @@
+package com.banking.controller;
+
+import com.banking.dto.ApiResponse;
+import com.banking.dto.LedgerExportResponse;
+import com.banking.dto.TransactionImportResponse;
+import com.banking.entity.TransactionImport;
+import com.banking.service.LedgerExport;
+import com.banking.service.LedgerExportService;
+import com.banking.service.TransactionImportService;
+import com.banking.util.ZeroCopyDownload;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Controller for administrative operations, open to users listed in
+ * {@code app.security.admin-usernames}
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/admin")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+    
+    @Autowired
+    private LedgerExportService ledgerExportService;
+    
+    @Autowired
+    private TransactionImportService transactionImportService;
+    
+    /**
+     * Start a bulk export of every transaction; poll the returned location until it completes
+     */
+    @PostMapping("/exports")
+    public ResponseEntity<?> startExport() {
+        LedgerExport export = ledgerExportService.start();
+        return ResponseEntity.accepted()
+                .location(URI.create("/admin/exports/" + export.getId()))
+                .body(ApiResponse.success("Ledger export started", new LedgerExportResponse(export)));
+    }
+    
+    /**
+     * List the exports of this node, newest first
+     */
+    @GetMapping("/exports")
+    public ResponseEntity<?> listExports() {
+        List<LedgerExportResponse> exports = ledgerExportService.list().stream()
+                .map(LedgerExportResponse::new)
+                .toList();
+        return ResponseEntity.ok(ApiResponse.success("Ledger exports retrieved successfully", exports));
+    }
+    
+    /**
+     * Get the progress of an export
+     */
+    @GetMapping("/exports/{id}")
+    public ResponseEntity<?> getExport(@PathVariable long id) {
+        LedgerExportResponse export = new LedgerExportResponse(ledgerExportService.get(id));
+        return ResponseEntity.ok(ApiResponse.success("Ledger export retrieved successfully", export));
+    }
+    
+    /**
+     * Download a completed export. Supports a single Range, so interrupted downloads
+     * can be resumed and large files fetched in parallel parts.
+     */
+    @GetMapping("/exports/{id}/file")
+    public void downloadExport(@PathVariable long id, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        ZeroCopyDownload.send(ledgerExportService.getFile(id), "application/csv",
+                "ledger_" + id + ".csv", request, response);
+    }
+    
+    /**
+     * Delete a finished export and its file
+     */
+    @DeleteMapping("/exports/{id}")
+    public ResponseEntity<?> deleteExport(@PathVariable long id) throws IOException {
+        ledgerExportService.delete(id);
+        return ResponseEntity.ok(ApiResponse.success("Ledger export deleted"));
+    }
+    
+    /**
+     * Upload a CSV in the transaction export layout and import it in the background;
+     * poll the returned location for progress
+     */
+    @PostMapping(value = "/imports", consumes = {"text/csv", "application/csv", "application/octet-stream"})
+    public ResponseEntity<?> startImport(HttpServletRequest request) throws IOException {
+        TransactionImport transactionImport = transactionImportService.start(request.getInputStream());
+        return ResponseEntity.accepted()
+                .location(URI.create("/admin/imports/" + transactionImport.getId()))
+                .body(ApiResponse.success("Transaction import started", describe(transactionImport)));
+    }
+    
+    /**
+     * Get the progress of an import
+     */
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<?> getImport(@PathVariable long id) {
+        TransactionImportResponse transactionImport = describe(transactionImportService.get(id));
+        return ResponseEntity.ok(ApiResponse.success("Transaction import retrieved successfully", transactionImport));
+    }
+    
+    /**
+     * Resume a failed or interrupted import from its last checkpoint
+     */
+    @PostMapping("/imports/{id}/resume")
+    public ResponseEntity<?> resumeImport(@PathVariable long id) {
+        TransactionImport transactionImport = transactionImportService.resume(id);
+        return ResponseEntity.accepted()
+                .location(URI.create("/admin/imports/" + id))
+                .body(ApiResponse.success("Transaction import resumed", describe(transactionImport)));
+    }
+    
+    private TransactionImportResponse describe(TransactionImport transactionImport) {
+        long id = transactionImport.getId();
+        return new TransactionImportResponse(transactionImport, transactionImportService.getImported(id),
+                transactionImportService.getCurrentRate(id));
+    }
+}
\ No newline at end of file
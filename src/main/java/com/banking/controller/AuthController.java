@@ -27,13 +27,8 @@ public class AuthController {
      */
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        try {
-            JwtResponse jwtResponse = authService.authenticateUser(loginRequest);
-            return ResponseEntity.ok(ApiResponse.success("Login successful", jwtResponse));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Login failed: " + e.getMessage()));
-        }
+        JwtResponse jwtResponse = authService.authenticateUser(loginRequest);
+        return ResponseEntity.ok(ApiResponse.success("Login successful", jwtResponse));
     }
     
     /**
@@ -41,12 +36,7 @@ public class AuthController {
      */
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        try {
-            User user = authService.registerUser(signUpRequest);
-            return ResponseEntity.ok(ApiResponse.success("User registered successfully! Username: " + user.getUsername()));
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Registration failed: " + e.getMessage()));
-        }
+        User user = authService.registerUser(signUpRequest);
+        return ResponseEntity.ok(ApiResponse.success("User registered successfully! Username: " + user.getUsername()));
     }
 }
\ No newline at end of file
@@ -2,21 +2,38 @@ package com.banking.controller;
 
 import com.banking.dto.ApiResponse;
 import com.banking.dto.BalanceResponse;
+import com.banking.dto.BatchTransferRequest;
+import com.banking.dto.BatchTransferResponse;
+import com.banking.dto.SummaryResponse;
+import com.banking.dto.TransactionPage;
 import com.banking.dto.TransactionRequest;
 import com.banking.dto.TransactionResponse;
+import com.banking.entity.RollupPeriod;
+import com.banking.exception.BankingErrors;
+import com.banking.metrics.BankingMetrics;
 import com.banking.service.BankingService;
-import com.banking.util.CsvExportUtil;
+import com.banking.service.BatchTransferService;
+import com.banking.service.IdempotencyService;
+import com.banking.util.CountingOutputStream;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controller for banking operations
@@ -27,71 +44,93 @@ import java.util.List;
 @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
 public class BankingController {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_BUFFER_SIZE = 16 * 1024;
+    private static final int DEFAULT_SUMMARY_MONTHS = 12;
+    private static final int DEFAULT_SUMMARY_DAYS = 31;
+    
     @Autowired
     private BankingService bankingService;
     
     @Autowired
-    private CsvExportUtil csvExportUtil;
+    private BatchTransferService batchTransferService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private BankingMetrics bankingMetrics;
+    
+    @Value("${app.export.gzip-enabled:true}")
+    private boolean exportGzipEnabled;
     
     /**
      * Get account balance
      */
     @GetMapping("/balance")
     public ResponseEntity<?> getBalance() {
-        try {
-            BalanceResponse balance = bankingService.getBalance();
-            return ResponseEntity.ok(ApiResponse.success("Balance retrieved successfully", balance));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Failed to get balance: " + e.getMessage()));
-        }
+        BalanceResponse balance = bankingService.getBalance();
+        return ResponseEntity.ok(ApiResponse.success("Balance retrieved successfully", balance));
     }
     
     /**
      * Credit money to account
      */
     @PostMapping("/credit")
-    public ResponseEntity<?> creditMoney(@Valid @RequestBody TransactionRequest request) {
-        try {
-            TransactionResponse transaction = bankingService.creditMoney(request);
-            return ResponseEntity.ok(ApiResponse.success("Money credited successfully", transaction));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Credit failed: " + e.getMessage()));
-        }
+    public ResponseEntity<?> creditMoney(@Valid @RequestBody TransactionRequest request,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, "credit", request,
+                () -> bankingService.creditMoney(request));
+        return posted(result, "Money credited successfully");
     }
     
     /**
      * Debit money from account
      */
     @PostMapping("/debit")
-    public ResponseEntity<?> debitMoney(@Valid @RequestBody TransactionRequest request) {
-        try {
-            TransactionResponse transaction = bankingService.debitMoney(request);
-            return ResponseEntity.ok(ApiResponse.success("Money debited successfully", transaction));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Debit failed: " + e.getMessage()));
-        }
+    public ResponseEntity<?> debitMoney(@Valid @RequestBody TransactionRequest request,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, "debit", request,
+                () -> bankingService.debitMoney(request));
+        return posted(result, "Money debited successfully");
     }
     
     /**
      * Transfer money to another user
      */
     @PostMapping("/transfer")
-    public ResponseEntity<?> transferMoney(@Valid @RequestBody TransactionRequest request) {
-        try {
-            if (request.getTargetUsername() == null || request.getTargetUsername().trim().isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(ApiResponse.error("Target username is required for transfer"));
-            }
-            
-            TransactionResponse transaction = bankingService.transferMoney(request);
-            return ResponseEntity.ok(ApiResponse.success("Money transferred successfully", transaction));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Transfer failed: " + e.getMessage()));
+    public ResponseEntity<?> transferMoney(@Valid @RequestBody TransactionRequest request,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (request.getTargetUsername() == null || request.getTargetUsername().trim().isEmpty()) {
+            throw BankingErrors.TARGET_REQUIRED;
+        }
+        
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, "transfer", request,
+                () -> bankingService.transferMoney(request));
+        return posted(result, "Money transferred successfully");
+    }
+    
+    /**
+     * Answer a posting, marking responses that were stored by an earlier request with the same key
+     */
+    private ResponseEntity<?> posted(IdempotencyService.Result result, String message) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (result.isReplayed()) {
+            response.header("Idempotent-Replayed", "true");
         }
+        return response.body(ApiResponse.success(message, result.getResponse()));
+    }
+    
+    /**
+     * Transfer money to many users in one request, with a result per transfer
+     */
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<?> transferBatch(@Valid @RequestBody BatchTransferRequest request) {
+        BatchTransferResponse response = batchTransferService.transferBatch(request.getTransfers());
+        return ResponseEntity.ok(ApiResponse.success(
+                "Batch processed: " + response.getSucceeded() + " succeeded, " + response.getFailed() + " failed",
+                response));
     }
     
     /**
@@ -100,51 +139,88 @@ public class BankingController {
     @GetMapping("/transactions")
     public ResponseEntity<?> getTransactions(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        try {
-            List<TransactionResponse> transactions;
-            
-            if (from != null && to != null) {
-                transactions = bankingService.getTransactionHistory(from, to);
-            } else {
-                transactions = bankingService.getTransactionHistory();
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        // Paginated when the client asks for a page size or continues from a cursor
+        if (limit != null || cursor != null) {
+            int pageSize = Math.min(Math.max(limit != null ? limit : DEFAULT_PAGE_SIZE, 1), MAX_PAGE_SIZE);
+            TransactionPage page = bankingService.getTransactionPage(from, to, cursor, pageSize);
+            return ResponseEntity.ok(ApiResponse.success("Transactions retrieved successfully",
+                    page.getTransactions(), page.getNextCursor()));
+        }
+        
+        List<TransactionResponse> transactions;
+        
+        if (from != null && to != null) {
+            transactions = bankingService.getTransactionHistory(from, to);
+        } else {
+            transactions = bankingService.getTransactionHistory();
+        }
+        
+        return ResponseEntity.ok(ApiResponse.success("Transactions retrieved successfully", transactions));
+    }
+    
+    /**
+     * Get credits, debits and transfer totals per month or per day. Without a range,
+     * covers the last 12 months or the last 31 days.
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> getSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "period", defaultValue = "month") String periodName) {
+        RollupPeriod period = parsePeriod(periodName);
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : period == RollupPeriod.MONTH
+                ? end.withDayOfMonth(1).minusMonths(DEFAULT_SUMMARY_MONTHS - 1)
+                : end.minusDays(DEFAULT_SUMMARY_DAYS - 1);
+        
+        List<SummaryResponse> summary = bankingService.getStatementSummary(start, end, period);
+        return ResponseEntity.ok(ApiResponse.success("Summary retrieved successfully", summary));
+    }
+    
+    private RollupPeriod parsePeriod(String name) {
+        for (RollupPeriod period : RollupPeriod.values()) {
+            if (period.name().equalsIgnoreCase(name)) {
+                return period;
             }
-            
-            return ResponseEntity.ok(ApiResponse.success("Transactions retrieved successfully", transactions));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Failed to get transactions: " + e.getMessage()));
         }
+        throw BankingErrors.INVALID_PERIOD;
     }
     
     /**
-     * Download transaction history as CSV
+     * Download transaction history as CSV, streamed to the client and gzip-encoded
+     * when the client accepts it
      */
     @GetMapping("/transactions/download")
-    public ResponseEntity<?> downloadTransactions(
+    public ResponseEntity<StreamingResponseBody> downloadTransactions(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
-        try {
-            List<TransactionResponse> transactions;
-            
-            if (from != null && to != null) {
-                transactions = bankingService.getTransactionHistory(from, to);
-            } else {
-                transactions = bankingService.getTransactionHistory();
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = exportGzipEnabled && acceptEncoding != null && acceptEncoding.contains("gzip");
+        
+        StreamingResponseBody body = outputStream -> {
+            CountingOutputStream counted = new CountingOutputStream(outputStream);
+            OutputStream out = gzip ? new GZIPOutputStream(counted, EXPORT_BUFFER_SIZE) : counted;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            long rows = bankingService.exportTransactionHistory(from, to, writer);
+            if (gzip) {
+                ((GZIPOutputStream) out).finish();
             }
-            
-            String csvContent = csvExportUtil.exportTransactionsToCsv(transactions);
-            
-            String filename = "transactions_" + LocalDate.now() + ".csv";
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.parseMediaType("application/csv"))
-                    .body(csvContent);
-                    
-        } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(ApiResponse.error("Failed to download transactions: " + e.getMessage()));
+            bankingMetrics.recordExport(rows, counted.getCount());
+        };
+        
+        String filename = "transactions_" + LocalDate.now() + ".csv";
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/csv"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
         }
+        
+        return response.body(body);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.banking.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Generic DTO for API responses
  */
@@ -9,6 +11,14 @@ public class ApiResponse {
     private String message;
     private Object data;
     
+    // Only set on paginated responses
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+    
+    // Only set on errors raised as a BankingException
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String code;
+    
     // Constructors
     public ApiResponse() {}
     
@@ -32,10 +42,22 @@ public class ApiResponse {
         return new ApiResponse(true, message, data);
     }
     
+    public static ApiResponse success(String message, Object data, String nextCursor) {
+        ApiResponse response = new ApiResponse(true, message, data);
+        response.setNextCursor(nextCursor);
+        return response;
+    }
+    
     public static ApiResponse error(String message) {
         return new ApiResponse(false, message);
     }
     
+    public static ApiResponse error(String code, String message) {
+        ApiResponse response = new ApiResponse(false, message);
+        response.setCode(code);
+        return response;
+    }
+    
     // Getters and Setters
     public boolean isSuccess() {
         return success;
@@ -60,4 +82,20 @@ public class ApiResponse {
     public void setData(Object data) {
         this.data = data;
     }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public void setCode(String code) {
+        this.code = code;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.banking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * DTO for a batch of transfers from the current user. Items are validated one by
+ * one while the batch is applied, so an invalid item, null included, fails on its own.
+ */
+public class BatchTransferRequest {
+    
+    @NotEmpty(message = "At least one transfer is required")
+    private List<TransactionRequest> transfers;
+    
+    // Constructors
+    public BatchTransferRequest() {}
+    
+    public BatchTransferRequest(List<TransactionRequest> transfers) {
+        this.transfers = transfers;
+    }
+    
+    // Getters and Setters
+    public List<TransactionRequest> getTransfers() {
+        return transfers;
+    }
+    
+    public void setTransfers(List<TransactionRequest> transfers) {
+        this.transfers = transfers;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.banking.dto;
+
+import java.util.List;
+
+/**
+ * Per-item results of a batch transfer and how many items succeeded
+ */
+public class BatchTransferResponse {
+    
+    private final int succeeded;
+    private final int failed;
+    private final List<BatchTransferResult> results;
+    
+    public BatchTransferResponse(List<BatchTransferResult> results) {
+        int ok = 0;
+        for (BatchTransferResult result : results) {
+            if (result.isSuccess()) {
+                ok++;
+            }
+        }
+        this.succeeded = ok;
+        this.failed = results.size() - ok;
+        this.results = results;
+    }
+    
+    public int getSucceeded() {
+        return succeeded;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public List<BatchTransferResult> getResults() {
+        return results;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.banking.dto;
+
+import com.banking.exception.BankingException;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one item of a batch transfer, in the position it had in the request
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchTransferResult {
+    
+    private final int index;
+    private final boolean success;
+    private final String code;
+    private final String message;
+    private final TransactionResponse transaction;
+    
+    private BatchTransferResult(int index, boolean success, String code, String message,
+                                TransactionResponse transaction) {
+        this.index = index;
+        this.success = success;
+        this.code = code;
+        this.message = message;
+        this.transaction = transaction;
+    }
+    
+    public static BatchTransferResult success(int index, TransactionResponse transaction) {
+        return new BatchTransferResult(index, true, null, null, transaction);
+    }
+    
+    public static BatchTransferResult error(int index, BankingException e) {
+        return error(index, e.getCode(), e.getMessage());
+    }
+    
+    public static BatchTransferResult error(int index, String code, String message) {
+        return new BatchTransferResult(index, false, code, message, null);
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    /**
+     * Machine-readable reason the item failed, as in {@link ApiResponse}; null on success
+     */
+    public String getCode() {
+        return code;
+    }
+    
+    /**
+     * Why the item failed, null on success
+     */
+    public String getMessage() {
+        return message;
+    }
+    
+    /**
+     * The recorded transfer, null on failure
+     */
+    public TransactionResponse getTransaction() {
+        return transaction;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.banking.dto;
+
+import com.banking.service.LedgerExport;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the state of a bulk ledger export
+ */
+public class LedgerExportResponse {
+    
+    private long id;
+    private LedgerExport.Status status;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private int segments;
+    private int completedSegments;
+    private long rows;
+    private long bytes;
+    
+    // Only set when the export failed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+    
+    // Constructors
+    public LedgerExportResponse() {}
+    
+    public LedgerExportResponse(LedgerExport export) {
+        this.id = export.getId();
+        this.status = export.getStatus();
+        this.startedAt = export.getStartedAt();
+        this.completedAt = export.getCompletedAt();
+        this.segments = export.getSegments();
+        this.completedSegments = export.getCompletedSegments();
+        this.rows = export.getRows();
+        this.bytes = export.getBytes();
+        this.error = export.getError();
+    }
+    
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public LedgerExport.Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(LedgerExport.Status status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    
+    public int getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(int segments) {
+        this.segments = segments;
+    }
+    
+    public int getCompletedSegments() {
+        return completedSegments;
+    }
+    
+    public void setCompletedSegments(int completedSegments) {
+        this.completedSegments = completedSegments;
+    }
+    
+    public long getRows() {
+        return rows;
+    }
+    
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+    
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.banking.dto;
+
+import com.banking.entity.AccountRollup;
+import com.banking.entity.RollupPeriod;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for one day or month of an account's statement summary
+ */
+public class SummaryResponse {
+    
+    private RollupPeriod period;
+    private LocalDate periodStart;
+    private BigDecimal credits;
+    private BigDecimal debits;
+    private BigDecimal transfersIn;
+    private BigDecimal transfersOut;
+    // Transfers received minus transfers sent
+    private BigDecimal transfersNet;
+    private long transactionCount;
+    
+    // Constructors
+    public SummaryResponse() {}
+    
+    public SummaryResponse(AccountRollup rollup) {
+        this.period = rollup.getPeriod();
+        this.periodStart = rollup.getPeriodStart();
+        this.credits = rollup.getCredits();
+        this.debits = rollup.getDebits();
+        this.transfersIn = rollup.getTransfersIn();
+        this.transfersOut = rollup.getTransfersOut();
+        this.transfersNet = rollup.getTransfersIn().subtract(rollup.getTransfersOut());
+        this.transactionCount = rollup.getTransactionCount();
+    }
+    
+    // Getters and Setters
+    public RollupPeriod getPeriod() {
+        return period;
+    }
+    
+    public void setPeriod(RollupPeriod period) {
+        this.period = period;
+    }
+    
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+    
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+    
+    public BigDecimal getCredits() {
+        return credits;
+    }
+    
+    public void setCredits(BigDecimal credits) {
+        this.credits = credits;
+    }
+    
+    public BigDecimal getDebits() {
+        return debits;
+    }
+    
+    public void setDebits(BigDecimal debits) {
+        this.debits = debits;
+    }
+    
+    public BigDecimal getTransfersIn() {
+        return transfersIn;
+    }
+    
+    public void setTransfersIn(BigDecimal transfersIn) {
+        this.transfersIn = transfersIn;
+    }
+    
+    public BigDecimal getTransfersOut() {
+        return transfersOut;
+    }
+    
+    public void setTransfersOut(BigDecimal transfersOut) {
+        this.transfersOut = transfersOut;
+    }
+    
+    public BigDecimal getTransfersNet() {
+        return transfersNet;
+    }
+    
+    public void setTransfersNet(BigDecimal transfersNet) {
+        this.transfersNet = transfersNet;
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
\ No newline at end of file
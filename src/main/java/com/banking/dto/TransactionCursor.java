@@ -0,0 +1,55 @@
+package com.banking.dto;
+
+import com.banking.exception.BankingErrors;
+import com.banking.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a user's transaction history, ordered by timestamp then id descending.
+ * Clients receive it as an opaque string and pass it back to fetch the next page.
+ */
+public class TransactionCursor {
+    
+    private final LocalDateTime timestamp;
+    private final Long id;
+    
+    public TransactionCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+    
+    /**
+     * Encode as an opaque, URL-safe token
+     */
+    public String encode() {
+        String raw = timestamp + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a token produced by {@link #encode()}
+     * @throws InvalidRequestException if the token is malformed
+     */
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(',');
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw BankingErrors.INVALID_CURSOR;
+        }
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.banking.dto;
+
+import com.banking.entity.ImportStatus;
+import com.banking.entity.TransactionImport;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for the state of a bulk transaction import
+ */
+public class TransactionImportResponse {
+    
+    private long id;
+    private ImportStatus status;
+    private long fileSize;
+    private Integer chunks;
+    private long importedChunks;
+    private long importedRows;
+    // Of the run in progress, or of the run that completed the import
+    private Long rowsPerSecond;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    
+    // Only set when the import failed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+    
+    // Constructors
+    public TransactionImportResponse() {}
+    
+    /**
+     * @param imported chunks and rows imported so far
+     * @param currentRate rows per second of a run in progress, or null
+     */
+    public TransactionImportResponse(TransactionImport transactionImport, long[] imported, Long currentRate) {
+        this.id = transactionImport.getId();
+        this.status = transactionImport.getStatus();
+        this.fileSize = transactionImport.getFileSize();
+        this.chunks = transactionImport.getChunkCount();
+        this.importedChunks = imported[0];
+        this.importedRows = imported[1];
+        this.rowsPerSecond = currentRate != null ? currentRate : transactionImport.getRowsPerSecond();
+        this.createdAt = transactionImport.getCreatedAt();
+        this.completedAt = transactionImport.getCompletedAt();
+        this.error = transactionImport.getError();
+    }
+    
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public ImportStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+    
+    public long getFileSize() {
+        return fileSize;
+    }
+    
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+    
+    public Integer getChunks() {
+        return chunks;
+    }
+    
+    public void setChunks(Integer chunks) {
+        this.chunks = chunks;
+    }
+    
+    public long getImportedChunks() {
+        return importedChunks;
+    }
+    
+    public void setImportedChunks(long importedChunks) {
+        this.importedChunks = importedChunks;
+    }
+    
+    public long getImportedRows() {
+        return importedRows;
+    }
+    
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+    
+    public Long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(Long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
\ No newline at end of file
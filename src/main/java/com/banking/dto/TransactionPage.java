@@ -0,0 +1,28 @@
+package com.banking.dto;
+
+import java.util.List;
+
+/**
+ * One page of transaction history and the cursor of the page after it
+ */
+public class TransactionPage {
+    
+    private final List<TransactionResponse> transactions;
+    private final String nextCursor;
+    
+    public TransactionPage(List<TransactionResponse> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<TransactionResponse> getTransactions() {
+        return transactions;
+    }
+    
+    /**
+     * Cursor for the next page, or null when this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
\ No newline at end of file
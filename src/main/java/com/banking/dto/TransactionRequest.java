@@ -1,7 +1,9 @@
 package com.banking.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 
 /**
@@ -9,14 +11,22 @@ import java.math.BigDecimal;
  */
 public class TransactionRequest {
     
+    // Limits of the transactions.amount and transactions.description columns
+    public static final int AMOUNT_INTEGER_DIGITS = 13;
+    public static final int AMOUNT_FRACTION_DIGITS = 2;
+    public static final int MAX_DESCRIPTION_LENGTH = 500;
+    
     @NotNull(message = "Amount is required")
     @Positive(message = "Amount must be positive")
+    @Digits(integer = AMOUNT_INTEGER_DIGITS, fraction = AMOUNT_FRACTION_DIGITS,
+            message = "Amount may have at most 13 digits before and 2 after the decimal point")
     private BigDecimal amount;
     
     // For transfer operations - target username or user ID
     private String targetUsername;
     
     // Optional description for the transaction
+    @Size(max = MAX_DESCRIPTION_LENGTH, message = "Description may be at most 500 characters")
     private String description;
     
     // Constructors
@@ -32,6 +42,25 @@ public class TransactionRequest {
         this.description = description;
     }
     
+    /**
+     * Whether an amount is positive and fits the amount column
+     */
+    public static boolean isValidAmount(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return false;
+        }
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() <= AMOUNT_FRACTION_DIGITS
+                && stripped.precision() - stripped.scale() <= AMOUNT_INTEGER_DIGITS;
+    }
+    
+    /**
+     * Whether a description fits the description column
+     */
+    public static boolean isValidDescription(String description) {
+        return description == null || description.length() <= MAX_DESCRIPTION_LENGTH;
+    }
+    
     // Getters and Setters
     public BigDecimal getAmount() {
         return amount;
@@ -0,0 +1,122 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totals of one user's postings over a day or a month. Rows are kept up to date by
+ * {@link com.banking.service.RollupService} in the transaction that writes each
+ * posting, so a statement summary reads one row per period instead of the history.
+ */
+@Entity
+@Table(name = "account_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_rollups_user_period",
+                columnNames = {"user_id", "period", "period_start"}))
+public class AccountRollup {
+    
+    @Id
+    @TimeOrderedId
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupPeriod period;
+    
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal credits = BigDecimal.ZERO;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal debits = BigDecimal.ZERO;
+    
+    @Column(name = "transfers_in", nullable = false, precision = 15, scale = 2)
+    private BigDecimal transfersIn = BigDecimal.ZERO;
+    
+    @Column(name = "transfers_out", nullable = false, precision = 15, scale = 2)
+    private BigDecimal transfersOut = BigDecimal.ZERO;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private long transactionCount;
+    
+    // Constructors
+    public AccountRollup() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public RollupPeriod getPeriod() {
+        return period;
+    }
+    
+    public void setPeriod(RollupPeriod period) {
+        this.period = period;
+    }
+    
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+    
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+    
+    public BigDecimal getCredits() {
+        return credits;
+    }
+    
+    public void setCredits(BigDecimal credits) {
+        this.credits = credits;
+    }
+    
+    public BigDecimal getDebits() {
+        return debits;
+    }
+    
+    public void setDebits(BigDecimal debits) {
+        this.debits = debits;
+    }
+    
+    public BigDecimal getTransfersIn() {
+        return transfersIn;
+    }
+    
+    public void setTransfersIn(BigDecimal transfersIn) {
+        this.transfersIn = transfersIn;
+    }
+    
+    public BigDecimal getTransfersOut() {
+        return transfersOut;
+    }
+    
+    public void setTransfersOut(BigDecimal transfersOut) {
+        this.transfersOut = transfersOut;
+    }
+    
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+    
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+}
\ No newline at end of file
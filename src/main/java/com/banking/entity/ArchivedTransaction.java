@@ -0,0 +1,131 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A transaction moved out of {@code transactions} once it is older than the archive
+ * horizon. Rows keep their id and columns; the history queries mirror those of
+ * {@link Transaction} and return the same response rows.
+ */
+@Entity
+@Table(name = "transactions_archive", indexes = {
+        @Index(name = "idx_transactions_archive_sender_timestamp", columnList = "sender_id, timestamp, id"),
+        @Index(name = "idx_transactions_archive_receiver_timestamp", columnList = "receiver_id, timestamp, id")
+})
+@NamedNativeQuery(name = "ArchivedTransaction.findHistoryByUserId", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                ArchivedTransaction.SENT + Transaction.ORDER + ") UNION ALL (" +
+                ArchivedTransaction.RECEIVED + Transaction.ORDER + ")" +
+                Transaction.HISTORY_JOIN)
+@NamedNativeQuery(name = "ArchivedTransaction.findHistoryByUserIdAndDateRange", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                ArchivedTransaction.SENT + Transaction.DATE_RANGE + Transaction.ORDER + ") UNION ALL (" +
+                ArchivedTransaction.RECEIVED + Transaction.DATE_RANGE + Transaction.ORDER + ")" +
+                Transaction.HISTORY_JOIN)
+@NamedNativeQuery(name = "ArchivedTransaction.findFirstPageByUserId", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                ArchivedTransaction.SENT + Transaction.ORDER + Transaction.LIMIT + ") UNION ALL (" +
+                ArchivedTransaction.RECEIVED + Transaction.ORDER + Transaction.LIMIT + ")" +
+                Transaction.HISTORY_JOIN + Transaction.LIMIT)
+@NamedNativeQuery(name = "ArchivedTransaction.findPageByUserId", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                ArchivedTransaction.SENT + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT + ") UNION ALL (" +
+                ArchivedTransaction.RECEIVED + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT + ")" +
+                Transaction.HISTORY_JOIN + Transaction.LIMIT)
+@NamedNativeQuery(name = "ArchivedTransaction.findPageByUserIdAndDateRange", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                ArchivedTransaction.SENT + Transaction.FROM_DATE + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT +
+                ") UNION ALL (" +
+                ArchivedTransaction.RECEIVED + Transaction.FROM_DATE + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT +
+                ")" + Transaction.HISTORY_JOIN + Transaction.LIMIT)
+public class ArchivedTransaction {
+    
+    static final String SENT = "SELECT t.* FROM transactions_archive t WHERE t.sender_id = :userId";
+    static final String RECEIVED = "SELECT t.* FROM transactions_archive t WHERE t.receiver_id = :userId " +
+            "AND (t.sender_id IS NULL OR t.sender_id <> :userId)";
+    
+    // Copied from the transactions row, never generated here
+    @Id
+    private Long id;
+    
+    @Column(name = "sender_id")
+    private Long senderId;
+    
+    @Column(name = "receiver_id")
+    private Long receiverId;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(nullable = false)
+    private LocalDateTime timestamp;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+    
+    @Column(length = 500)
+    private String description;
+    
+    // Constructors
+    public ArchivedTransaction() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getSenderId() {
+        return senderId;
+    }
+    
+    public void setSenderId(Long senderId) {
+        this.senderId = senderId;
+    }
+    
+    public Long getReceiverId() {
+        return receiverId;
+    }
+    
+    public void setReceiverId(Long receiverId) {
+        this.receiverId = receiverId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.banking.entity;
+
+/**
+ * State of a bulk transaction import
+ */
+public enum ImportStatus {
+    RUNNING,    // Chunks are being imported, or the node running it stopped; resumable
+    FAILED,     // Stopped on an error; resumable from the chunks already imported
+    COMPLETED   // Every row imported and every balance adjusted
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.banking.entity;
+
+/**
+ * Granularity of an account rollup row
+ */
+public enum RollupPeriod {
+    DAY,    // One calendar day, starting at period_start
+    MONTH   // One calendar month, period_start is its first day
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.banking.entity;
+
+import com.banking.util.TimeOrderedIds;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+/**
+ * Hibernate generator behind {@link TimeOrderedId}
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+    
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return TimeOrderedIds.next();
+    }
+}
\ No newline at end of file
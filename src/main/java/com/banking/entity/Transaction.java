@@ -1,5 +1,6 @@
 package com.banking.entity;
 
+import com.banking.dto.TransactionResponse;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -7,14 +8,77 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
- * Transaction entity representing all money transactions in the banking system
+ * Transaction entity representing all money transactions in the banking system.
+ * History queries read the sender and receiver sides separately, each as an ordered
+ * range scan of its own (account, timestamp, id) index, and merge them with UNION ALL.
+ * Rows older than the archive horizon are moved to {@link ArchivedTransaction}, oldest
+ * first along the (timestamp, id) index.
  */
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_sender_timestamp", columnList = "sender_id, timestamp, id"),
+        @Index(name = "idx_transactions_receiver_timestamp", columnList = "receiver_id, timestamp, id"),
+        @Index(name = "idx_transactions_timestamp", columnList = "timestamp, id")
+})
+@SqlResultSetMapping(name = Transaction.RESPONSE_MAPPING, classes = @ConstructorResult(
+        targetClass = TransactionResponse.class,
+        columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "sender_username", type = String.class),
+                @ColumnResult(name = "receiver_username", type = String.class),
+                @ColumnResult(name = "amount", type = BigDecimal.class),
+                @ColumnResult(name = "timestamp", type = LocalDateTime.class),
+                @ColumnResult(name = "type", type = TransactionType.class),
+                @ColumnResult(name = "description", type = String.class)
+        }))
+@NamedNativeQuery(name = "Transaction.findHistoryByUserId", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                Transaction.SENT + Transaction.ORDER + ") UNION ALL (" +
+                Transaction.RECEIVED + Transaction.ORDER + ")" +
+                Transaction.HISTORY_JOIN)
+@NamedNativeQuery(name = "Transaction.findHistoryByUserIdAndDateRange", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                Transaction.SENT + Transaction.DATE_RANGE + Transaction.ORDER + ") UNION ALL (" +
+                Transaction.RECEIVED + Transaction.DATE_RANGE + Transaction.ORDER + ")" +
+                Transaction.HISTORY_JOIN)
+@NamedNativeQuery(name = "Transaction.findFirstPageByUserId", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                Transaction.SENT + Transaction.ORDER + Transaction.LIMIT + ") UNION ALL (" +
+                Transaction.RECEIVED + Transaction.ORDER + Transaction.LIMIT + ")" +
+                Transaction.HISTORY_JOIN + Transaction.LIMIT)
+@NamedNativeQuery(name = "Transaction.findPageByUserId", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                Transaction.SENT + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT + ") UNION ALL (" +
+                Transaction.RECEIVED + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT + ")" +
+                Transaction.HISTORY_JOIN + Transaction.LIMIT)
+@NamedNativeQuery(name = "Transaction.findPageByUserIdAndDateRange", resultSetMapping = Transaction.RESPONSE_MAPPING,
+        query = Transaction.HISTORY_SELECT + "(" +
+                Transaction.SENT + Transaction.FROM_DATE + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT +
+                ") UNION ALL (" +
+                Transaction.RECEIVED + Transaction.FROM_DATE + Transaction.BEFORE + Transaction.ORDER + Transaction.LIMIT +
+                ")" + Transaction.HISTORY_JOIN + Transaction.LIMIT)
 public class Transaction {
     
+    static final String RESPONSE_MAPPING = "TransactionResponse";
+    
+    // Building blocks of the history queries. Each branch is served by one index, the
+    // receiver branch skips rows the sender branch already returned.
+    static final String SENT = "SELECT t.* FROM transactions t WHERE t.sender_id = :userId";
+    static final String RECEIVED = "SELECT t.* FROM transactions t WHERE t.receiver_id = :userId " +
+            "AND (t.sender_id IS NULL OR t.sender_id <> :userId)";
+    static final String DATE_RANGE = " AND t.timestamp >= :fromDate AND t.timestamp <= :toDate";
+    static final String FROM_DATE = " AND t.timestamp >= :fromDate";
+    static final String BEFORE = " AND (t.timestamp < :beforeTimestamp " +
+            "OR (t.timestamp = :beforeTimestamp AND t.id < :beforeId))";
+    static final String ORDER = " ORDER BY t.timestamp DESC, t.id DESC";
+    static final String LIMIT = " LIMIT :limit";
+    static final String HISTORY_SELECT = "SELECT h.id, s.username AS sender_username, r.username AS receiver_username, " +
+            "h.amount, h.timestamp, h.type, h.description FROM (";
+    static final String HISTORY_JOIN = ") h LEFT JOIN users s ON s.id = h.sender_id " +
+            "LEFT JOIN users r ON r.id = h.receiver_id ORDER BY h.timestamp DESC, h.id DESC";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     // Sender of the transaction (can be null for CREDIT operations)
@@ -0,0 +1,143 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A bulk import of historical transactions from an uploaded CSV file. The file is
+ * split into chunks of {@code chunkSize} bytes at line ends; each chunk is imported in
+ * one database transaction that also records it in {@link TransactionImportChunk}, so
+ * a failed or interrupted import resumes with the chunks that are missing.
+ */
+@Entity
+@Table(name = "transaction_imports")
+public class TransactionImport {
+    
+    @Id
+    @TimeOrderedId
+    private Long id;
+    
+    // Name of the uploaded file in the import directory, deleted once the import completes
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+    
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+    
+    // Kept with the import so that a resumed run splits the file the same way
+    @Column(name = "chunk_size", nullable = false)
+    private int chunkSize;
+    
+    // Set once the file has been split
+    @Column(name = "chunk_count")
+    private Integer chunkCount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ImportStatus status;
+    
+    // Throughput of the run that completed the import
+    @Column(name = "rows_per_second")
+    private Long rowsPerSecond;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public TransactionImport() {}
+    
+    public TransactionImport(String fileName, long fileSize, int chunkSize) {
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.chunkSize = chunkSize;
+        this.status = ImportStatus.RUNNING;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public long getFileSize() {
+        return fileSize;
+    }
+    
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+    
+    public int getChunkSize() {
+        return chunkSize;
+    }
+    
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+    
+    public Integer getChunkCount() {
+        return chunkCount;
+    }
+    
+    public void setChunkCount(Integer chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+    
+    public ImportStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(ImportStatus status) {
+        this.status = status;
+    }
+    
+    public Long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(Long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Checkpoint of one imported chunk of a {@link TransactionImport}, written in the
+ * same transaction as the chunk's rows. Only written and read with plain SQL by
+ * {@link com.banking.service.TransactionImportService}.
+ */
+@Entity
+@Table(name = "transaction_import_chunks",
+        uniqueConstraints = @UniqueConstraint(name = "uk_transaction_import_chunks_offset",
+                columnNames = {"import_id", "start_offset"}))
+public class TransactionImportChunk {
+    
+    @Id
+    @TimeOrderedId
+    private Long id;
+    
+    @Column(name = "import_id", nullable = false)
+    private Long importId;
+    
+    // Byte offset of the chunk's first line in the file
+    @Column(name = "start_offset", nullable = false)
+    private long startOffset;
+    
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+    
+    // Constructors
+    public TransactionImportChunk() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getImportId() {
+        return importId;
+    }
+    
+    public void setImportId(Long importId) {
+        this.importId = importId;
+    }
+    
+    public long getStartOffset() {
+        return startOffset;
+    }
+    
+    public void setStartOffset(long startOffset) {
+        this.startOffset = startOffset;
+    }
+    
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+}
\ No newline at end of file
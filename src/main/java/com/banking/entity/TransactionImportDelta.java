@@ -0,0 +1,65 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Net balance change of one user from one imported chunk. Chunks only append these
+ * rows, so parallel chunks never wait on a user's row; the sums are added to the
+ * balances once every chunk is in, and the rows are deleted in the same transaction.
+ * Only written and read with plain SQL by {@link com.banking.service.TransactionImportService}.
+ */
+@Entity
+@Table(name = "transaction_import_deltas",
+        indexes = @Index(name = "idx_transaction_import_deltas_user", columnList = "import_id, user_id"))
+public class TransactionImportDelta {
+    
+    @Id
+    @TimeOrderedId
+    private Long id;
+    
+    @Column(name = "import_id", nullable = false)
+    private Long importId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+    
+    // Constructors
+    public TransactionImportDelta() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getImportId() {
+        return importId;
+    }
+    
+    public void setImportId(Long importId) {
+        this.importId = importId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
\ No newline at end of file
@@ -1,24 +1,38 @@
 package com.banking.entity;
 
+import com.banking.service.UserChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
- * User entity representing a bank account holder
+ * User entity representing a bank account holder. Held in the second-level cache and
+ * looked up by its natural id, the username; balance updates bypass the entity and
+ * evict it by id (see {@link com.banking.repository.UserRepositoryCustom}).
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
+@NaturalIdCache(region = User.NATURAL_ID_CACHE_REGION)
 public class User {
     
+    public static final String CACHE_REGION = "users";
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-username";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
+    @NaturalId
     @Column(unique = true, nullable = false)
     @NotBlank(message = "Username is required")
     private String username;
@@ -36,6 +50,11 @@ public class User {
     @NotNull(message = "Balance cannot be null")
     private BigDecimal balance = BigDecimal.ZERO;
     
+    // Bumped on every balance change, including the conditional updates in UserRepository
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -112,6 +131,14 @@ public class User {
         this.balance = balance;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,13 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The account a request refers to does not exist
+ */
+public class AccountNotFoundException extends BankingException {
+    
+    public AccountNotFoundException(String code, String message) {
+        super(HttpStatus.NOT_FOUND, code, message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.banking.exception;
+
+import com.banking.service.IdempotencyService;
+
+/**
+ * Preallocated instances of the business errors with a fixed message. Rejections are
+ * thrown on hot paths, e.g. repeatedly against a drained account, so they cost a
+ * throw and nothing else.
+ */
+public final class BankingErrors {
+    
+    public static final InsufficientBalanceException INSUFFICIENT_BALANCE = new InsufficientBalanceException();
+    
+    public static final AccountNotFoundException USER_NOT_FOUND =
+            new AccountNotFoundException("user_not_found", "User not found");
+    
+    public static final AccountNotFoundException TARGET_NOT_FOUND =
+            new AccountNotFoundException("target_not_found", "Target user not found");
+    
+    public static final InvalidRequestException SELF_TRANSFER =
+            new InvalidRequestException("self_transfer", "Cannot transfer money to yourself");
+    
+    public static final InvalidRequestException TARGET_REQUIRED =
+            new InvalidRequestException("target_required", "Target username is required for transfer");
+    
+    public static final InvalidRequestException TRANSFER_REQUIRED =
+            new InvalidRequestException("transfer_required", "Batch item is empty");
+    
+    public static final InvalidRequestException INVALID_AMOUNT =
+            new InvalidRequestException("invalid_amount",
+                    "Amount must be positive with at most 13 digits before and 2 after the decimal point");
+    
+    public static final InvalidRequestException DESCRIPTION_TOO_LONG =
+            new InvalidRequestException("description_too_long", "Description may be at most 500 characters");
+    
+    public static final InvalidRequestException INVALID_CURSOR =
+            new InvalidRequestException("invalid_cursor", "Invalid cursor");
+    
+    public static final InvalidRequestException INVALID_DATE_RANGE =
+            new InvalidRequestException("invalid_date_range", "The start date must not be after the end date");
+    
+    public static final InvalidRequestException INVALID_PERIOD =
+            new InvalidRequestException("invalid_period", "Period must be day or month");
+    
+    public static final ConflictException USERNAME_TAKEN =
+            new ConflictException("username_taken", "Username is already taken");
+    
+    public static final ConflictException EMAIL_IN_USE =
+            new ConflictException("email_in_use", "Email is already in use");
+    
+    public static final ConflictException ACCOUNT_BUSY =
+            new ConflictException("account_busy", "Account is busy, please retry");
+    
+    public static final ConflictException IDEMPOTENCY_KEY_IN_PROGRESS =
+            new ConflictException("idempotency_key_in_progress",
+                    "A request with this " + IdempotencyService.HEADER + " is being processed");
+    
+    public static final ConflictException IDEMPOTENCY_KEY_OUTCOME_UNKNOWN =
+            new ConflictException("idempotency_key_outcome_unknown",
+                    "The request with this " + IdempotencyService.HEADER
+                            + " may have been posted; check the transaction history");
+    
+    public static final ConflictException IDEMPOTENCY_KEY_REUSED =
+            new ConflictException("idempotency_key_reused",
+                    IdempotencyService.HEADER + " was already used for a different request");
+    
+    public static final ResourceNotFoundException EXPORT_NOT_FOUND =
+            new ResourceNotFoundException("export_not_found", "Ledger export not found");
+    
+    public static final ConflictException EXPORT_IN_PROGRESS =
+            new ConflictException("export_in_progress", "A ledger export is already running");
+    
+    public static final ConflictException EXPORT_NOT_READY =
+            new ConflictException("export_not_ready", "Ledger export has not completed");
+    
+    public static final ResourceNotFoundException IMPORT_NOT_FOUND =
+            new ResourceNotFoundException("import_not_found", "Transaction import not found");
+    
+    public static final InvalidRequestException INVALID_IMPORT_FILE =
+            new InvalidRequestException("invalid_import_file", "The file does not start with the transaction export header");
+    
+    public static final ConflictException IMPORT_IN_PROGRESS =
+            new ConflictException("import_in_progress", "The transaction import is running");
+    
+    public static final ConflictException IMPORT_COMPLETED =
+            new ConflictException("import_completed", "The transaction import has already completed");
+    
+    public static final ConflictException IMPORT_UNAVAILABLE =
+            new ConflictException("import_unavailable", "Transaction imports need app.ledger.engine=jpa");
+    
+    public static final ServiceUnavailableException LEDGER_UNAVAILABLE =
+            new ServiceUnavailableException("ledger_unavailable", "Ledger is not accepting postings");
+    
+    public static final ServiceUnavailableException LEDGER_OVERLOADED =
+            new ServiceUnavailableException("ledger_overloaded", "Ledger is overloaded, please retry");
+    
+    // The posting was withdrawn before it was applied; retrying is safe
+    public static final ServiceUnavailableException LEDGER_TIMEOUT =
+            new ServiceUnavailableException("ledger_timeout", "Ledger request timed out, please retry");
+    
+    // The posting was already being applied and may have been committed
+    public static final OutcomeUnknownException LEDGER_OUTCOME_UNKNOWN =
+            new OutcomeUnknownException("outcome_unknown",
+                    "Ledger request timed out while being applied; check the transaction history before retrying");
+    
+    // The posting was applied and is persisted unless the process dies before the journal syncs
+    public static final OutcomeUnknownException JOURNAL_SYNC_TIMEOUT =
+            new OutcomeUnknownException("journal_sync_timeout",
+                    "Ledger journal sync timed out; the posting may have been committed, check the transaction history before retrying");
+    
+    public static final ServiceUnavailableException AUTH_BUSY =
+            new ServiceUnavailableException("auth_busy", "Too many sign-ins in progress, please retry");
+    
+    public static final ServiceUnavailableException INTERRUPTED =
+            new ServiceUnavailableException("interrupted", "Request was interrupted, please retry");
+    
+    private BankingErrors() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Base class of the business errors answered to clients. These are expected outcomes
+ * rather than bugs, so no stack trace is captured; the common ones are preallocated in
+ * {@link BankingErrors} and thrown as shared instances.
+ */
+public abstract class BankingException extends RuntimeException {
+    
+    private final HttpStatus status;
+    private final String code;
+    
+    protected BankingException(HttpStatus status, String code, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.code = code;
+    }
+    
+    /**
+     * HTTP status the error is answered with
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+    
+    /**
+     * Stable, machine-readable error code, e.g. {@code insufficient_balance}
+     */
+    public String getCode() {
+        return code;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request collides with existing data or with another request in flight
+ */
+public class ConflictException extends BankingException {
+    
+    public ConflictException(String code, String message) {
+        super(HttpStatus.CONFLICT, code, message);
+    }
+}
\ No newline at end of file
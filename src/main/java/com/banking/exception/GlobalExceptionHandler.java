@@ -0,0 +1,77 @@
+package com.banking.exception;
+
+import com.banking.dto.ApiResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import java.util.stream.Collectors;
+
+/**
+ * Turns exceptions thrown by the controllers into {@link ApiResponse} errors with a
+ * matching HTTP status
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    
+    @ExceptionHandler(BankingException.class)
+    public ResponseEntity<ApiResponse> handleBankingException(BankingException e) {
+        return ResponseEntity.status(e.getStatus()).body(ApiResponse.error(e.getCode(), e.getMessage()));
+    }
+    
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ApiResponse> handleAuthenticationException(AuthenticationException e) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error("Invalid username or password"));
+    }
+    
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ApiResponse> handleAccessDeniedException(AccessDeniedException e) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error("Access denied"));
+    }
+    
+    /**
+     * Anything else is a bug or an infrastructure failure; its details stay in the log
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiResponse> handleUnexpectedException(Exception e) {
+        logger.error("Unhandled error: {}", e.getMessage(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ApiResponse.error("Internal server error"));
+    }
+    
+    /**
+     * Spring MVC's own errors (validation, unreadable bodies, missing parameters) keep
+     * their status but are answered in the same format
+     */
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+                                                             HttpStatusCode statusCode, WebRequest request) {
+        ResponseEntity<Object> response = super.handleExceptionInternal(ex, body, headers, statusCode, request);
+        if (response == null) {
+            return null;
+        }
+        
+        String message = ex.getMessage();
+        if (ex instanceof MethodArgumentNotValidException) {
+            message = ((MethodArgumentNotValidException) ex).getBindingResult().getFieldErrors().stream()
+                    .map(FieldError::getDefaultMessage)
+                    .collect(Collectors.joining(", "));
+        } else if (response.getBody() instanceof ProblemDetail) {
+            message = ((ProblemDetail) response.getBody()).getDetail();
+        }
+        return new ResponseEntity<>(ApiResponse.error(message), response.getHeaders(), response.getStatusCode());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The account does not hold enough funds for the posting
+ */
+public class InsufficientBalanceException extends BankingException {
+    
+    public InsufficientBalanceException() {
+        super(HttpStatus.UNPROCESSABLE_ENTITY, "insufficient_balance", "Insufficient balance");
+    }
+}
\ No newline at end of file
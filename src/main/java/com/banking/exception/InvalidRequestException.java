@@ -0,0 +1,13 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request is malformed or asks for something that is never allowed
+ */
+public class InvalidRequestException extends BankingException {
+    
+    public InvalidRequestException(String code, String message) {
+        super(HttpStatus.BAD_REQUEST, code, message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request timed out after its posting had started, so the posting may or may not
+ * have been committed. Unlike other errors it must not be retried blindly.
+ */
+public class OutcomeUnknownException extends BankingException {
+    
+    public OutcomeUnknownException(String code, String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, code, message);
+    }
+}
\ No newline at end of file
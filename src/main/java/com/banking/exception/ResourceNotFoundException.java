@@ -0,0 +1,13 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A resource other than an account that the request refers to does not exist
+ */
+public class ResourceNotFoundException extends BankingException {
+    
+    public ResourceNotFoundException(String code, String message) {
+        super(HttpStatus.NOT_FOUND, code, message);
+    }
+}
\ No newline at end of file
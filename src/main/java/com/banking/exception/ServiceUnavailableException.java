@@ -0,0 +1,13 @@
+package com.banking.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The request could not be served right now and may succeed when retried
+ */
+public class ServiceUnavailableException extends BankingException {
+    
+    public ServiceUnavailableException(String code, String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, code, message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,378 @@
+package com.banking.ledger;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import com.banking.exception.BankingErrors;
+import com.banking.metrics.BankingMetrics;
+import com.banking.repository.UserRepository;
+import com.banking.service.RollupService;
+import com.banking.util.TimeOrderedIds;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * In-memory ledger that partitions accounts across single-writer shards.
+ * Postings are applied in memory by the shard owning the account and persisted
+ * asynchronously in batches. Enabled with {@code app.ledger.engine=sharded}; this
+ * node must then be the only writer of account balances.
+ * <p>
+ * With {@code app.ledger.journal.enabled=true} every leg is first appended to a
+ * {@link LedgerJournal}, callers are answered once their legs are on disk, and the
+ * journal is replayed into the database on the next start.
+ */
+@Component
+@ConditionalOnProperty(name = "app.ledger.engine", havingValue = "sharded")
+public class LedgerEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerEngine.class);
+    
+    // States of a submitted command
+    private static final int QUEUED = 0;
+    private static final int STARTED = 1;
+    private static final int ABANDONED = 2;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private BankingMetrics bankingMetrics;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Value("${app.ledger.shards:4}")
+    private int shardCount;
+    
+    @Value("${app.ledger.inbox-capacity:65536}")
+    private int inboxCapacity;
+    
+    @Value("${app.ledger.persist-queue-capacity:262144}")
+    private int persistQueueCapacity;
+    
+    @Value("${app.ledger.persist-batch-size:500}")
+    private int persistBatchSize;
+    
+    @Value("${app.ledger.timeout-ms:5000}")
+    private long timeoutMs;
+    
+    @Value("${app.ledger.dead-letter-file:ledger-dead-letters.tsv}")
+    private String deadLetterFile;
+    
+    @Value("${app.ledger.journal.enabled:false}")
+    private boolean journalEnabled;
+    
+    @Value("${app.ledger.journal.dir:ledger-journal}")
+    private String journalDir;
+    
+    @Value("${app.ledger.journal.segment-size-mb:64}")
+    private int journalSegmentSizeMb;
+    
+    @Value("${app.ledger.journal.fsync:true}")
+    private boolean journalFsync;
+    
+    private LedgerShard[] shards;
+    private LedgerPersister persister;
+    private LedgerJournal journal;
+    
+    private final AtomicLong pendingCommands = new AtomicLong();
+    
+    private volatile boolean accepting;
+    
+    @PostConstruct
+    public void start() throws IOException {
+        if (journalEnabled) {
+            journal = new LedgerJournal(Paths.get(journalDir), journalSegmentSizeMb * 1024 * 1024, journalFsync);
+        }
+        persister = new LedgerPersister(jdbcTemplate, new TransactionTemplate(transactionManager),
+                persistQueueCapacity, persistBatchSize, journal, userRepository::evictFromCache,
+                rollupService, Paths.get(deadLetterFile));
+        
+        if (journal != null) {
+            // Balances are loaded lazily from the database, so it must be up to date first
+            List<LedgerPosting> recovered = journal.recover();
+            if (!recovered.isEmpty()) {
+                persister.replay(recovered);
+                logger.info("Replayed {} ledger postings from the journal", recovered.size());
+            }
+            journal.discardRecovered();
+            journal.open();
+        }
+        persister.start();
+        
+        shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, inboxCapacity, this::loadBalance, pendingCommands);
+            shards[i].start();
+        }
+        
+        accepting = true;
+        logger.info("Ledger engine started with {} shards", shardCount);
+    }
+    
+    /**
+     * Stop accepting postings, let in-flight legs settle and flush the persister
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        accepting = false;
+        
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (pendingCommands.get() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        if (pendingCommands.get() > 0) {
+            logger.warn("Stopping ledger engine with {} commands still pending", pendingCommands.get());
+        }
+        
+        for (LedgerShard shard : shards) {
+            shard.stop();
+        }
+        persister.stop();
+        if (journal != null) {
+            journal.close();
+        }
+        logger.info("Ledger engine stopped");
+    }
+    
+    /**
+     * Current balance as seen by the owning shard
+     */
+    public BigDecimal getBalance(long accountId) {
+        return execute(accountId, shard -> shard.balanceOf(accountId));
+    }
+    
+    /**
+     * Credit an account
+     */
+    public TransactionResponse credit(long accountId, String username, BigDecimal amount, String description) {
+        checkPosting(amount, description);
+        return execute(accountId, shard -> {
+            BigDecimal balance = shard.balanceOf(accountId).add(amount);
+            LedgerPosting posting = new LedgerPosting(TimeOrderedIds.next(), TransactionType.CREDIT,
+                    null, accountId, amount, LocalDateTime.now(), description, accountId, balance, true);
+            record(posting);
+            shard.setBalance(accountId, balance);
+            
+            return toResponse(posting, null, username);
+        });
+    }
+    
+    /**
+     * Debit an account if it holds enough funds
+     */
+    public TransactionResponse debit(long accountId, String username, BigDecimal amount, String description) {
+        checkPosting(amount, description);
+        return execute(accountId, shard -> {
+            BigDecimal balance = shard.balanceOf(accountId);
+            if (balance.compareTo(amount) < 0) {
+                bankingMetrics.recordInsufficientBalance();
+                throw BankingErrors.INSUFFICIENT_BALANCE;
+            }
+            balance = balance.subtract(amount);
+            LedgerPosting posting = new LedgerPosting(TimeOrderedIds.next(), TransactionType.DEBIT,
+                    accountId, null, amount, LocalDateTime.now(), description, accountId, balance, true);
+            record(posting);
+            shard.setBalance(accountId, balance);
+            
+            return toResponse(posting, username, null);
+        });
+    }
+    
+    /**
+     * Transfer between two accounts. The sender's shard debits and records the
+     * transaction, then hands the credit leg to the receiver's shard; the caller is
+     * answered once the debit has been applied.
+     */
+    public TransactionResponse transfer(long senderId, String senderUsername, long receiverId, String receiverUsername,
+                                        BigDecimal amount, String description) {
+        checkPosting(amount, description);
+        LedgerShard receiverShard = shardFor(receiverId);
+        
+        return execute(senderId, shard -> {
+            BigDecimal senderBalance = shard.balanceOf(senderId);
+            if (senderBalance.compareTo(amount) < 0) {
+                bankingMetrics.recordInsufficientBalance();
+                throw BankingErrors.INSUFFICIENT_BALANCE;
+            }
+            senderBalance = senderBalance.subtract(amount);
+            long transactionId = TimeOrderedIds.next();
+            LocalDateTime timestamp = LocalDateTime.now();
+            LedgerPosting posting = new LedgerPosting(transactionId, TransactionType.TRANSFER,
+                    senderId, receiverId, amount, timestamp, description, senderId, senderBalance, true);
+            record(posting);
+            shard.setBalance(senderId, senderBalance);
+            
+            LedgerShard.Command creditLeg = target -> {
+                BigDecimal receiverBalance = target.balanceOf(receiverId).add(amount);
+                record(new LedgerPosting(transactionId, TransactionType.TRANSFER,
+                        senderId, receiverId, amount, timestamp, description, receiverId, receiverBalance, false));
+                target.setBalance(receiverId, receiverBalance);
+            };
+            if (receiverShard == shard) {
+                creditLeg.execute(shard);
+            } else {
+                receiverShard.forward(creditLeg);
+            }
+            
+            return toResponse(posting, senderUsername, receiverUsername);
+        });
+    }
+    
+    /**
+     * Number of commands and postings not yet applied or persisted
+     */
+    public long getBacklog() {
+        long backlog = persister.backlog();
+        for (LedgerShard shard : shards) {
+            backlog += shard.backlog();
+        }
+        return backlog;
+    }
+    
+    /**
+     * Number of postings the persister could not write and set aside
+     */
+    public long getDeadLetters() {
+        return persister.deadLetters();
+    }
+    
+    /**
+     * Refuse what the database would reject. A posting is acknowledged before it is
+     * persisted, so one the persister cannot write could only be dead-lettered.
+     */
+    private void checkPosting(BigDecimal amount, String description) {
+        if (!TransactionRequest.isValidAmount(amount)) {
+            throw BankingErrors.INVALID_AMOUNT;
+        }
+        if (!TransactionRequest.isValidDescription(description)) {
+            throw BankingErrors.DESCRIPTION_TOO_LONG;
+        }
+    }
+    
+    /**
+     * Hand a leg to the persister, through the journal when there is one. Must be
+     * called from the shard thread that owns the account, before the balance is
+     * changed: if the journal refuses the leg, the balance stays as it was.
+     */
+    private void record(LedgerPosting posting) {
+        if (journal != null) {
+            journal.append(posting, persister::enqueue);
+        } else {
+            persister.enqueue(posting);
+        }
+    }
+    
+    /**
+     * Run an operation on the account's shard and wait for it. A caller that gives up
+     * waiting withdraws the command, so a shard that has not reached it yet skips it and
+     * the caller can answer {@link BankingErrors#LEDGER_TIMEOUT}, which is safe to
+     * retry. If the shard had already started it, the posting may have been applied and
+     * the caller answers {@link BankingErrors#LEDGER_OUTCOME_UNKNOWN} instead. Likewise
+     * {@link BankingErrors#JOURNAL_SYNC_TIMEOUT} means the posting was applied but not
+     * yet synced: it is persisted unless the process dies first.
+     */
+    private <T> T execute(long accountId, Function<LedgerShard, T> operation) {
+        if (!accepting) {
+            throw BankingErrors.LEDGER_UNAVAILABLE;
+        }
+        
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // Journal position covering everything the operation saw or wrote
+        long[] sequence = new long[1];
+        // QUEUED until the shard starts the command or the caller withdraws it, whichever is first
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        LedgerShard.Command command = shard -> {
+            if (!state.compareAndSet(QUEUED, STARTED)) {
+                return;
+            }
+            try {
+                T value = operation.apply(shard);
+                if (journal != null) {
+                    sequence[0] = journal.lastSequence();
+                }
+                result.complete(value);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+        
+        try {
+            if (!shardFor(accountId).submit(command, timeoutMs)) {
+                throw BankingErrors.LEDGER_OVERLOADED;
+            }
+            T value = result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            // Group commit: answer only once the journal has synced the posting
+            if (journal != null && !journal.awaitDurable(sequence[0], timeoutMs)) {
+                throw BankingErrors.JOURNAL_SYNC_TIMEOUT;
+            }
+            return value;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw state.compareAndSet(QUEUED, ABANDONED) ?
+                    BankingErrors.LEDGER_TIMEOUT : BankingErrors.LEDGER_OUTCOME_UNKNOWN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw state.compareAndSet(QUEUED, ABANDONED) ?
+                    BankingErrors.INTERRUPTED : BankingErrors.LEDGER_OUTCOME_UNKNOWN;
+        }
+    }
+    
+    private LedgerShard shardFor(long accountId) {
+        return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+    }
+    
+    private BigDecimal loadBalance(long accountId) {
+        try {
+            return jdbcTemplate.queryForObject(
+                    "SELECT balance FROM users WHERE id = ?", BigDecimal.class, accountId);
+        } catch (EmptyResultDataAccessException e) {
+            throw BankingErrors.USER_NOT_FOUND;
+        }
+    }
+    
+    private TransactionResponse toResponse(LedgerPosting posting, String senderUsername, String receiverUsername) {
+        return new TransactionResponse(
+                posting.getTransactionId(),
+                senderUsername,
+                receiverUsername,
+                posting.getAmount(),
+                posting.getTimestamp(),
+                posting.getType(),
+                posting.getDescription()
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,457 @@
+package com.banking.ledger;
+
+import com.banking.entity.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal for ledger postings. Legs are appended as compact binary records
+ * to memory-mapped segment files, and a sync thread forces everything appended since its
+ * last pass in one go (group commit). A segment is deleted once the persister has
+ * written every leg in it to the database.
+ * <p>
+ * A record is its payload length (int), the CRC32C of the payload (int) and the payload.
+ * A zero length marks the end of a segment. Recovery stops at the first record that is
+ * incomplete or fails its checksum, so a torn write at the tail is dropped. Segments
+ * after a torn one are renamed with a {@code .torn} suffix and not replayed.
+ */
+class LedgerJournal implements Runnable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerJournal.class);
+    
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String QUARANTINE_SUFFIX = ".torn";
+    private static final int HEADER_SIZE = 8;
+    
+    private static final int RECORDS_TRANSACTION = 1;
+    private static final int HAS_SENDER = 2;
+    private static final int HAS_RECEIVER = 4;
+    private static final int HAS_DESCRIPTION = 8;
+    
+    private static final TransactionType[] TYPES = TransactionType.values();
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final Thread syncThread;
+    private final CRC32C checksum = new CRC32C();
+    
+    // Guarded by this. The sync thread and the persister never take this lock, because
+    // an appender holds it while handing a leg to a possibly full persister queue.
+    private final List<Path> recoveredSegments = new ArrayList<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    private volatile Segment current;
+    
+    // Rotated segments not yet deleted, guarded by itself
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+    
+    // A j.u.c lock rather than a monitor: request threads wait here, and a virtual
+    // thread waiting on a monitor would stay pinned to its carrier
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durable = durableLock.newCondition();
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+    private volatile long persistedSequence;
+    private volatile boolean running;
+    
+    private static final class Segment {
+        
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        long lastSequence;
+        
+        Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+    
+    LedgerJournal(Path directory, int segmentSize, boolean fsync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.syncThread = new Thread(this, "ledger-journal-sync");
+    }
+    
+    /**
+     * Read the legs left by a previous run, in the order they were appended.
+     * Must be called before {@link #open()}.
+     */
+    synchronized List<LedgerPosting> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files
+                    .filter(path -> isSegment(path.getFileName().toString()))
+                    .sorted()
+                    .toList();
+        }
+        
+        List<LedgerPosting> postings = new ArrayList<>();
+        long highestStart = 0;
+        boolean torn = false;
+        for (Path segment : segments) {
+            highestStart = Math.max(highestStart, firstSequence(segment));
+            if (torn) {
+                // Legs past a gap can't be replayed in order; keep them for inspection
+                Path quarantined = segment.resolveSibling(segment.getFileName() + QUARANTINE_SUFFIX);
+                Files.move(segment, quarantined, StandardCopyOption.REPLACE_EXISTING);
+                logger.warn("Ledger journal segment {} follows a torn segment and was moved to {}",
+                        segment.getFileName(), quarantined.getFileName());
+                continue;
+            }
+            recoveredSegments.add(segment);
+            if (!readSegment(segment, postings)) {
+                logger.warn("Ledger journal segment {} ends in an incomplete record; later records are ignored",
+                        segment.getFileName());
+                torn = true;
+            }
+        }
+        
+        if (!postings.isEmpty()) {
+            appendedSequence = postings.get(postings.size() - 1).getSequence();
+        }
+        // Continue past every segment found, so a new segment never reuses a name
+        appendedSequence = Math.max(appendedSequence, highestStart);
+        durableSequence = appendedSequence;
+        persistedSequence = appendedSequence;
+        return postings;
+    }
+    
+    /**
+     * Delete the segments read by {@link #recover()} once their legs are in the database
+     */
+    synchronized void discardRecovered() throws IOException {
+        for (Path segment : recoveredSegments) {
+            Files.deleteIfExists(segment);
+        }
+        recoveredSegments.clear();
+    }
+    
+    private static boolean isSegment(String name) {
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+    
+    /**
+     * Sequence of the first leg in a segment, taken from its file name
+     */
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    /**
+     * Start a new segment and, when syncing, the group commit thread
+     */
+    synchronized void open() throws IOException {
+        current = createSegment(appendedSequence + 1);
+        running = true;
+        if (fsync) {
+            syncThread.start();
+        }
+    }
+    
+    /**
+     * Append a leg and hand it on while still holding the journal lock, so that legs
+     * reach the next stage in journal order. Called from shard threads.
+     * @return the sequence assigned to the leg
+     */
+    synchronized long append(LedgerPosting posting, Consumer<LedgerPosting> next) {
+        long sequence = appendedSequence + 1;
+        posting.setSequence(sequence);
+        encode(posting);
+        
+        int recordSize = HEADER_SIZE + scratch.remaining();
+        if (recordSize > segmentSize - Integer.BYTES) {
+            throw new RuntimeException("Ledger posting is too large for the journal");
+        }
+        // Keep room for the end-of-segment marker
+        if (current.buffer.remaining() < recordSize + Integer.BYTES) {
+            rotate(sequence);
+        }
+        
+        checksum.reset();
+        checksum.update(scratch.duplicate());
+        current.buffer.putInt(scratch.remaining());
+        current.buffer.putInt((int) checksum.getValue());
+        current.buffer.put(scratch);
+        current.lastSequence = sequence;
+        
+        appendedSequence = sequence;
+        if (fsync) {
+            LockSupport.unpark(syncThread);
+        } else {
+            durableSequence = sequence;
+        }
+        
+        next.accept(posting);
+        return sequence;
+    }
+    
+    /**
+     * Sequence of the last leg appended
+     */
+    long lastSequence() {
+        return appendedSequence;
+    }
+    
+    /**
+     * Wait until every leg up to the given sequence is on disk
+     * @return false if that did not happen within the timeout
+     */
+    boolean awaitDurable(long sequence, long timeoutMs) throws InterruptedException {
+        if (durableSequence >= sequence) {
+            return true;
+        }
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        durableLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = durable.awaitNanos(remainingNanos);
+            }
+        } finally {
+            durableLock.unlock();
+        }
+        return true;
+    }
+    
+    /**
+     * Record that every leg up to the given sequence is in the database and delete
+     * the segments that hold nothing newer
+     */
+    void persisted(long sequence) {
+        persistedSequence = sequence;
+        
+        List<Segment> obsolete = new ArrayList<>();
+        synchronized (closedSegments) {
+            while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSequence <= sequence) {
+                obsolete.add(closedSegments.pollFirst());
+            }
+        }
+        for (Segment segment : obsolete) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete ledger journal segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Stop syncing and close the current segment. When every leg has reached the
+     * database the journal is emptied, so the next start has nothing to replay.
+     */
+    void close() throws InterruptedException, IOException {
+        running = false;
+        if (fsync) {
+            LockSupport.unpark(syncThread);
+            syncThread.join();
+        }
+        
+        synchronized (this) {
+            current.buffer.force();
+            current.channel.close();
+            if (persistedSequence >= appendedSequence) {
+                synchronized (closedSegments) {
+                    for (Segment segment : closedSegments) {
+                        Files.deleteIfExists(segment.path);
+                    }
+                    closedSegments.clear();
+                }
+                Files.deleteIfExists(current.path);
+            }
+        }
+    }
+    
+    /**
+     * Group commit loop: force whatever has been appended, then wake the waiters
+     */
+    @Override
+    public void run() {
+        while (running || durableSequence < appendedSequence) {
+            // Read in this order: a leg up to the target is either in this segment or in
+            // an earlier one, which was forced when it was rotated out
+            long target = appendedSequence;
+            Segment segment = current;
+            
+            if (target <= durableSequence) {
+                LockSupport.park(this);
+                continue;
+            }
+            
+            segment.buffer.force();
+            durableSequence = target;
+            durableLock.lock();
+            try {
+                durable.signalAll();
+            } finally {
+                durableLock.unlock();
+            }
+        }
+    }
+    
+    private void rotate(long nextSequence) {
+        try {
+            if (current.buffer.remaining() >= Integer.BYTES) {
+                current.buffer.putInt(0);
+            }
+            current.buffer.force();
+            current.channel.close();
+            synchronized (closedSegments) {
+                closedSegments.addLast(current);
+            }
+            current = createSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate ledger journal", e);
+        }
+    }
+    
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        // Make the new file and its size durable before records depend on it
+        channel.force(true);
+        return new Segment(path, channel, buffer);
+    }
+    
+    /**
+     * Read the records of one segment
+     * @return false if the segment ends in a record that is incomplete or corrupt
+     */
+    private boolean readSegment(Path path, List<LedgerPosting> postings) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt();
+                if (length == 0) {
+                    return true;
+                }
+                if (length < 0 || buffer.remaining() < Integer.BYTES + length) {
+                    return false;
+                }
+                int expected = buffer.getInt();
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expected) {
+                    return false;
+                }
+                postings.add(decode(payload));
+                buffer.position(buffer.position() + length);
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Encode a leg into the scratch buffer, leaving it ready to be read
+     */
+    private void encode(LedgerPosting posting) {
+        byte[] description = posting.getDescription() != null
+                ? posting.getDescription().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] amount = posting.getAmount().unscaledValue().toByteArray();
+        byte[] balanceAfter = posting.getBalanceAfter().unscaledValue().toByteArray();
+        int maxSize = 96 + amount.length + balanceAfter.length + (description != null ? description.length : 0);
+        if (scratch.capacity() < maxSize) {
+            scratch = ByteBuffer.allocate(Math.max(maxSize, scratch.capacity() * 2));
+        }
+        
+        int flags = (posting.recordsTransaction() ? RECORDS_TRANSACTION : 0)
+                | (posting.getSenderId() != null ? HAS_SENDER : 0)
+                | (posting.getReceiverId() != null ? HAS_RECEIVER : 0)
+                | (description != null ? HAS_DESCRIPTION : 0);
+        
+        scratch.clear();
+        scratch.putLong(posting.getSequence());
+        scratch.putLong(posting.getTransactionId());
+        scratch.put((byte) posting.getType().ordinal());
+        scratch.put((byte) flags);
+        if (posting.getSenderId() != null) {
+            scratch.putLong(posting.getSenderId());
+        }
+        if (posting.getReceiverId() != null) {
+            scratch.putLong(posting.getReceiverId());
+        }
+        putDecimal(posting.getAmount().scale(), amount);
+        scratch.putLong(posting.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        scratch.putInt(posting.getTimestamp().getNano());
+        if (description != null) {
+            scratch.putInt(description.length);
+            scratch.put(description);
+        }
+        scratch.putLong(posting.getAccountId());
+        putDecimal(posting.getBalanceAfter().scale(), balanceAfter);
+        scratch.flip();
+    }
+    
+    private static LedgerPosting decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        long transactionId = payload.getLong();
+        TransactionType type = TYPES[payload.get()];
+        int flags = payload.get();
+        Long senderId = (flags & HAS_SENDER) != 0 ? payload.getLong() : null;
+        Long receiverId = (flags & HAS_RECEIVER) != 0 ? payload.getLong() : null;
+        BigDecimal amount = getDecimal(payload);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC);
+        String description = null;
+        if ((flags & HAS_DESCRIPTION) != 0) {
+            byte[] bytes = new byte[payload.getInt()];
+            payload.get(bytes);
+            description = new String(bytes, StandardCharsets.UTF_8);
+        }
+        long accountId = payload.getLong();
+        BigDecimal balanceAfter = getDecimal(payload);
+        
+        LedgerPosting posting = new LedgerPosting(transactionId, type, senderId, receiverId, amount, timestamp,
+                description, accountId, balanceAfter, (flags & RECORDS_TRANSACTION) != 0);
+        posting.setSequence(sequence);
+        return posting;
+    }
+    
+    private void putDecimal(int scale, byte[] unscaled) {
+        scratch.putInt(scale);
+        scratch.putShort((short) unscaled.length);
+        scratch.put(unscaled);
+    }
+    
+    private static BigDecimal getDecimal(ByteBuffer payload) {
+        int scale = payload.getInt();
+        byte[] unscaled = new byte[payload.getShort()];
+        payload.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,369 @@
+package com.banking.ledger;
+
+import com.banking.entity.TransactionType;
+import com.banking.service.RollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Drains applied postings from the shards and writes them to the database in batches.
+ * Balances are written as absolute values, so only the last balance per account in a
+ * batch needs to reach the database. Rollups are counted from the transaction rows
+ * inserted, so a replayed leg whose row already exists is not counted twice. With a
+ * journal, a batch is written only once its legs are on disk, and the journal is told
+ * when it can drop them.
+ * <p>
+ * Failures the database may get over (lost connections, lock timeouts, deadlocks) are
+ * retried until they succeed, since the postings are already acknowledged. Any other
+ * failure would fail again on every retry, so the batch is written again one posting
+ * at a time and the postings that still fail are dead-lettered: appended to the
+ * dead-letter file, logged in full and counted, for an operator to repair by hand.
+ */
+class LedgerPersister implements Runnable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerPersister.class);
+    
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_BALANCE =
+            "UPDATE users SET balance = ?, version = version + 1, updated_at = ? WHERE id = ?";
+    
+    private static final long MAX_RETRY_BACKOFF_MS = 5000;
+    
+    private final BlockingQueue<LedgerPosting> queue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final LedgerJournal journal;
+    // Drops cached User entities whose balance was written, after the commit
+    private final Consumer<Collection<Long>> evictUsers;
+    private final RollupService rollupService;
+    private final Path deadLetterFile;
+    private final Thread thread;
+    private final LongAdder deadLetters = new LongAdder();
+    
+    private volatile boolean running = true;
+    
+    LedgerPersister(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                    int queueCapacity, int batchSize, LedgerJournal journal,
+                    Consumer<Collection<Long>> evictUsers, RollupService rollupService,
+                    Path deadLetterFile) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.journal = journal;
+        this.evictUsers = evictUsers;
+        this.rollupService = rollupService;
+        this.deadLetterFile = deadLetterFile;
+        this.thread = new Thread(this, "ledger-persister");
+        this.thread.setDaemon(false);
+    }
+    
+    void start() {
+        thread.start();
+    }
+    
+    /**
+     * Called from shard threads; blocks when the persister falls behind so that
+     * the shards slow down instead of buffering without limit.
+     */
+    void enqueue(LedgerPosting posting) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(posting);
+                break;
+            } catch (InterruptedException e) {
+                // An applied posting must reach the queue; restore the flag afterwards
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    int backlog() {
+        return queue.size();
+    }
+    
+    long deadLetters() {
+        return deadLetters.sum();
+    }
+    
+    /**
+     * Stop once everything already enqueued has been written
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join();
+    }
+    
+    @Override
+    public void run() {
+        List<LedgerPosting> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerPosting first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Re-check the loop condition; remaining postings are still drained
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeWithRetry(batch);
+        }
+    }
+    
+    /**
+     * Write legs recovered from the journal in one transaction. Legs that already
+     * reached the database are harmless to write again: existing transaction rows are
+     * skipped and balances are absolute. A transfer whose credit leg never reached the
+     * journal is completed here by crediting the receiver.
+     */
+    void replay(List<LedgerPosting> postings) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> existing = existingTransactionIds(postings);
+            Set<Long> credited = new HashSet<>();
+            List<LedgerPosting> rows = new ArrayList<>();
+            Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+            
+            for (LedgerPosting posting : postings) {
+                if (posting.recordsTransaction() && !existing.contains(posting.getTransactionId())) {
+                    rows.add(posting);
+                }
+                if (posting.getType() == TransactionType.TRANSFER && !posting.recordsTransaction()) {
+                    credited.add(posting.getTransactionId());
+                }
+                balances.put(posting.getAccountId(), posting.getBalanceAfter());
+            }
+            
+            for (LedgerPosting posting : postings) {
+                if (posting.getType() == TransactionType.TRANSFER && posting.recordsTransaction()
+                        && !credited.contains(posting.getTransactionId())) {
+                    long receiverId = posting.getReceiverId();
+                    BigDecimal balance = balances.containsKey(receiverId) ? balances.get(receiverId)
+                            : jdbcTemplate.queryForObject("SELECT balance FROM users WHERE id = ?",
+                                    BigDecimal.class, receiverId);
+                    balances.put(receiverId, balance.add(posting.getAmount()));
+                    logger.info("Completed transfer {} from the journal by crediting account {}",
+                            posting.getTransactionId(), receiverId);
+                }
+            }
+            
+            write(rows, balances);
+        });
+    }
+    
+    private Set<Long> existingTransactionIds(List<LedgerPosting> postings) {
+        List<Long> ids = new ArrayList<>();
+        for (LedgerPosting posting : postings) {
+            if (posting.recordsTransaction()) {
+                ids.add(posting.getTransactionId());
+            }
+        }
+        
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            Object[] args = chunk.toArray();
+            existing.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM transactions WHERE id IN (" + placeholders + ")", Long.class, args));
+            // A leg older than the archive horizon may have been written and archived already
+            existing.addAll(jdbcTemplate.queryForList(
+                    "SELECT id FROM transactions_archive WHERE id IN (" + placeholders + ")", Long.class, args));
+        }
+        return existing;
+    }
+    
+    private void writeWithRetry(List<LedgerPosting> batch) {
+        long sequence = batch.get(batch.size() - 1).getSequence();
+        if (journal != null) {
+            awaitJournal(sequence);
+        }
+        
+        if (!writeRetryingTransient(batch) && batch.size() > 1) {
+            // Find the postings that cannot be written and let the others through
+            for (LedgerPosting posting : batch) {
+                writeRetryingTransient(Collections.singletonList(posting));
+            }
+        }
+        if (journal != null) {
+            journal.persisted(sequence);
+        }
+    }
+    
+    /**
+     * @return false if the postings were dead-lettered, or would be if there were more
+     *         than one, because the failure is not one that retrying can get over
+     */
+    private boolean writeRetryingTransient(List<LedgerPosting> postings) {
+        long backoff = 50;
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(postings));
+                return true;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    if (postings.size() == 1) {
+                        deadLetter(postings.get(0), e);
+                    } else {
+                        logger.error("Failed to persist {} ledger postings, writing them one at a time: {}",
+                                postings.size(), e.getMessage());
+                    }
+                    return false;
+                }
+                // Postings are already acknowledged, so they are never dropped
+                logger.error("Failed to persist {} ledger postings, retrying in {} ms: {}",
+                        postings.size(), backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    // Keep retrying during shutdown as well
+                }
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+    
+    /**
+     * Spring counts a lost connection as non-transient, and failing to begin a transaction
+     * is not a DataAccessException at all, but both are how a database outage shows up
+     */
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+    
+    private void deadLetter(LedgerPosting posting, RuntimeException cause) {
+        deadLetters.increment();
+        String line = String.join("\t",
+                String.valueOf(posting.getTransactionId()),
+                posting.getType().name(),
+                String.valueOf(posting.getSenderId()),
+                String.valueOf(posting.getReceiverId()),
+                posting.getAmount().toPlainString(),
+                posting.getTimestamp().toString(),
+                String.valueOf(posting.getAccountId()),
+                posting.getBalanceAfter().toPlainString(),
+                String.valueOf(posting.recordsTransaction()),
+                String.valueOf(posting.getDescription()));
+        logger.error("Dead-lettered ledger posting, account {} balance in the database is stale: {}",
+                posting.getAccountId(), line, cause);
+        try {
+            Files.writeString(deadLetterFile, line + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("Could not append to the ledger dead-letter file {}", deadLetterFile, e);
+        }
+    }
+    
+    /**
+     * Never write a leg the journal could still lose, or replay would not see it
+     */
+    private void awaitJournal(long sequence) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (journal.awaitDurable(sequence, MAX_RETRY_BACKOFF_MS)) {
+                    break;
+                }
+                logger.warn("Waiting for the ledger journal to sync up to {}", sequence);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void write(List<LedgerPosting> batch) {
+        List<LedgerPosting> rows = new ArrayList<>(batch.size());
+        Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+        
+        for (LedgerPosting posting : batch) {
+            if (posting.recordsTransaction()) {
+                rows.add(posting);
+            }
+            balances.put(posting.getAccountId(), posting.getBalanceAfter());
+        }
+        write(rows, balances);
+    }
+    
+    private void write(List<LedgerPosting> transactions, Map<Long, BigDecimal> balances) {
+        List<Object[]> rows = new ArrayList<>(transactions.size());
+        RollupService.Changes rollups = new RollupService.Changes();
+        for (LedgerPosting posting : transactions) {
+            rows.add(new Object[] {
+                    posting.getTransactionId(),
+                    posting.getSenderId(),
+                    posting.getReceiverId(),
+                    posting.getAmount(),
+                    Timestamp.valueOf(posting.getTimestamp()),
+                    posting.getType().name(),
+                    posting.getDescription()
+            });
+            rollups.add(posting.getType(), posting.getSenderId(), posting.getReceiverId(),
+                    posting.getAmount(), posting.getTimestamp());
+        }
+        
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows, new int[] {
+                    Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DECIMAL,
+                    Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR
+            });
+        }
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>(balances.size());
+        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
+            updates.add(new Object[] { entry.getValue(), now, entry.getKey() });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE, updates);
+        rollupService.apply(rollups);
+        evictUsers.accept(new ArrayList<>(balances.keySet()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.banking.ledger;
+
+import com.banking.entity.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One applied leg of a posting, handed from a shard to the persister.
+ * A credit or debit is a single leg; a transfer is an outgoing leg that carries
+ * the transaction row and an incoming leg that only moves the receiver's balance.
+ */
+final class LedgerPosting {
+    
+    private final long transactionId;
+    private final TransactionType type;
+    private final Long senderId;
+    private final Long receiverId;
+    private final BigDecimal amount;
+    private final LocalDateTime timestamp;
+    private final String description;
+    
+    // Account whose balance this leg changed and its balance afterwards
+    private final long accountId;
+    private final BigDecimal balanceAfter;
+    
+    // Whether this leg writes the transactions row
+    private final boolean recordsTransaction;
+    
+    // Position in the journal, assigned when the leg is appended; 0 without a journal
+    private long sequence;
+    
+    LedgerPosting(long transactionId, TransactionType type, Long senderId, Long receiverId,
+                  BigDecimal amount, LocalDateTime timestamp, String description,
+                  long accountId, BigDecimal balanceAfter, boolean recordsTransaction) {
+        this.transactionId = transactionId;
+        this.type = type;
+        this.senderId = senderId;
+        this.receiverId = receiverId;
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.description = description;
+        this.accountId = accountId;
+        this.balanceAfter = balanceAfter;
+        this.recordsTransaction = recordsTransaction;
+    }
+    
+    long getTransactionId() {
+        return transactionId;
+    }
+    
+    TransactionType getType() {
+        return type;
+    }
+    
+    Long getSenderId() {
+        return senderId;
+    }
+    
+    Long getReceiverId() {
+        return receiverId;
+    }
+    
+    BigDecimal getAmount() {
+        return amount;
+    }
+    
+    LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    String getDescription() {
+        return description;
+    }
+    
+    long getAccountId() {
+        return accountId;
+    }
+    
+    BigDecimal getBalanceAfter() {
+        return balanceAfter;
+    }
+    
+    boolean recordsTransaction() {
+        return recordsTransaction;
+    }
+    
+    long getSequence() {
+        return sequence;
+    }
+    
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.banking.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * A single-writer partition of the ledger. Only the shard thread reads or writes
+ * the balances it owns, so commands are applied without any locking.
+ */
+class LedgerShard implements Runnable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerShard.class);
+    
+    private static final int DRAIN_BATCH = 256;
+    
+    /**
+     * Work executed on the shard thread with access to the shard's balances
+     */
+    interface Command {
+        void execute(LedgerShard shard);
+    }
+    
+    // No-op used to wake an idle shard when a cross-shard leg arrives
+    private static final Command WAKE = shard -> { };
+    
+    private final int index;
+    private final BlockingQueue<Command> inbox;
+    
+    // Legs forwarded by other shards. Unbounded so that two shards forwarding to
+    // each other can never block on each other's full inboxes; its growth is bounded
+    // by the senders' own inboxes.
+    private final Queue<Command> forwarded = new ConcurrentLinkedQueue<>();
+    private final Map<Long, BigDecimal> balances = new HashMap<>();
+    private final LongFunction<BigDecimal> balanceLoader;
+    private final AtomicLong pending;
+    private final Thread thread;
+    
+    private volatile boolean running = true;
+    
+    LedgerShard(int index, int inboxCapacity, LongFunction<BigDecimal> balanceLoader, AtomicLong pending) {
+        this.index = index;
+        this.inbox = new ArrayBlockingQueue<>(inboxCapacity);
+        this.balanceLoader = balanceLoader;
+        this.pending = pending;
+        this.thread = new Thread(this, "ledger-shard-" + index);
+    }
+    
+    void start() {
+        thread.start();
+    }
+    
+    void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join();
+    }
+    
+    int getIndex() {
+        return index;
+    }
+    
+    int backlog() {
+        return inbox.size() + forwarded.size();
+    }
+    
+    /**
+     * Enqueue a command, waiting up to the given timeout for inbox space
+     */
+    boolean submit(Command command, long timeoutMs) throws InterruptedException {
+        pending.incrementAndGet();
+        if (inbox.offer(command, timeoutMs, TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        pending.decrementAndGet();
+        return false;
+    }
+    
+    /**
+     * Enqueue a follow-up leg from another shard. These legs must never be dropped
+     * or block the sending shard.
+     */
+    void forward(Command command) {
+        pending.incrementAndGet();
+        forwarded.add(command);
+        // A full inbox means the shard is busy and will see the leg on its next pass
+        inbox.offer(WAKE);
+    }
+    
+    /**
+     * Current balance of an account owned by this shard, loaded on first use.
+     * Must only be called from the shard thread.
+     */
+    BigDecimal balanceOf(long accountId) {
+        BigDecimal balance = balances.get(accountId);
+        if (balance == null) {
+            balance = balanceLoader.apply(accountId);
+            balances.put(accountId, balance);
+        }
+        return balance;
+    }
+    
+    /**
+     * Must only be called from the shard thread
+     */
+    void setBalance(long accountId, BigDecimal balance) {
+        balances.put(accountId, balance);
+    }
+    
+    @Override
+    public void run() {
+        List<Command> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running) {
+            try {
+                batch.add(inbox.take());
+                inbox.drainTo(batch, DRAIN_BATCH - 1);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            // Forwarded legs were produced before anything still waiting in the inbox
+            Command leg;
+            while ((leg = forwarded.poll()) != null) {
+                apply(leg);
+            }
+            for (Command command : batch) {
+                if (command != WAKE) {
+                    apply(command);
+                }
+            }
+            batch.clear();
+        }
+    }
+    
+    private void apply(Command command) {
+        try {
+            command.execute(this);
+        } catch (RuntimeException e) {
+            // Commands complete their own futures; this only guards the loop
+            logger.error("Ledger shard {} failed to apply command: {}", index, e.getMessage(), e);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+package com.banking.metrics;
+
+import com.banking.config.ReadWriteRoutingDataSource;
+import com.banking.entity.User;
+import com.banking.ledger.LedgerEngine;
+import com.banking.security.AdmissionControlFilter;
+import com.banking.security.BoundedPasswordEncoder;
+import com.banking.security.RateLimiter;
+import com.banking.service.ContentionStats;
+import com.banking.service.TransactionArchiver;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the counters the application already keeps (contention, admission gate,
+ * rate limiter, password hashing pool, read routing, ledger backlog, second-level cache
+ * and archive mover) as meters, read when scraped rather than updated on the hot path.
+ */
+@Component
+public class BankingMeterBinder implements MeterBinder {
+    
+    @Autowired
+    private ContentionStats contentionStats;
+    
+    @Autowired
+    private AdmissionControlFilter admissionControlFilter;
+    
+    @Autowired
+    private RateLimiter rateLimiter;
+    
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private ObjectProvider<LedgerEngine> ledgerEngine;
+    
+    @Autowired
+    private TransactionArchiver transactionArchiver;
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        contention(registry, "retries", ContentionStats::getRetries);
+        contention(registry, "retries_exhausted", ContentionStats::getRetriesExhausted);
+        contention(registry, "deadlocks", ContentionStats::getDeadlocks);
+        contention(registry, "lock_wait_timeouts", ContentionStats::getLockWaitTimeouts);
+        contention(registry, "local_lock_waits", ContentionStats::getLocalLockWaits);
+        
+        Gauge.builder("banking.admission.active", admissionControlFilter, AdmissionControlFilter::getActive)
+                .description("Requests holding an admission permit")
+                .register(registry);
+        FunctionCounter.builder("banking.admission.queued", admissionControlFilter, AdmissionControlFilter::getQueued)
+                .description("Requests that waited for an admission permit")
+                .register(registry);
+        FunctionCounter.builder("banking.admission.rejected", admissionControlFilter, AdmissionControlFilter::getRejected)
+                .description("Requests answered 503 because no permit came free in time")
+                .register(registry);
+        
+        for (RateLimiter.Endpoint endpoint : RateLimiter.Endpoint.values()) {
+            String tag = endpoint.name().toLowerCase();
+            FunctionCounter.builder("banking.ratelimit.rejected", rateLimiter, limiter -> limiter.getRejected(endpoint))
+                    .description("Requests answered 429 because the client's bucket was empty")
+                    .tag("endpoint", tag)
+                    .register(registry);
+            Gauge.builder("banking.ratelimit.buckets", rateLimiter, limiter -> limiter.getBuckets(endpoint))
+                    .description("Clients with a rate limit bucket that has not been evicted")
+                    .tag("endpoint", tag)
+                    .register(registry);
+        }
+        
+        Gauge.builder("banking.password.hashing.active", passwordEncoder, BoundedPasswordEncoder::getActive)
+                .description("Password hashes being computed")
+                .register(registry);
+        Gauge.builder("banking.password.hashing.queued", passwordEncoder, BoundedPasswordEncoder::getQueued)
+                .description("Password hashes waiting for a hashing thread")
+                .register(registry);
+        FunctionCounter.builder("banking.password.hashing.rejected", passwordEncoder, BoundedPasswordEncoder::getRejected)
+                .description("Logins and signups answered 503 because the hashing queue was full")
+                .register(registry);
+        
+        routingDataSource.ifAvailable(routing -> {
+            FunctionCounter.builder("banking.datasource.reads", routing, ReadWriteRoutingDataSource::getPrimaryReads)
+                    .description("Read-only transactions by the pool they ran on")
+                    .tag("pool", "primary")
+                    .register(registry);
+            FunctionCounter.builder("banking.datasource.reads", routing, ReadWriteRoutingDataSource::getReplicaReads)
+                    .description("Read-only transactions by the pool they ran on")
+                    .tag("pool", "replica")
+                    .register(registry);
+        });
+        
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        cacheHitRatio(registry, statistics, User.CACHE_REGION);
+        cacheHitRatio(registry, statistics, User.NATURAL_ID_CACHE_REGION);
+        
+        ledgerEngine.ifAvailable(engine -> {
+            Gauge.builder("banking.ledger.backlog", engine, LedgerEngine::getBacklog)
+                    .description("Postings applied in memory but not yet persisted")
+                    .register(registry);
+            FunctionCounter.builder("banking.ledger.dead_letters", engine, LedgerEngine::getDeadLetters)
+                    .description("Acknowledged postings the database rejected; alert on any increase")
+                    .register(registry);
+        });
+        
+        FunctionCounter.builder("banking.archive.moved", transactionArchiver, TransactionArchiver::getArchivedRows)
+                .description("Transactions moved to the archive table by this node")
+                .register(registry);
+    }
+    
+    private void cacheHitRatio(MeterRegistry registry, Statistics statistics, String region) {
+        Gauge.builder("banking.cache.hit.ratio", statistics, stats -> {
+                    CacheRegionStatistics regionStats = stats.getDomainDataRegionStatistics(region);
+                    long requests = regionStats.getHitCount() + regionStats.getMissCount();
+                    return requests > 0 ? (double) regionStats.getHitCount() / requests : Double.NaN;
+                })
+                .description("Share of second-level cache lookups served from memory since startup")
+                .tag("region", region)
+                .register(registry);
+    }
+    
+    private void contention(MeterRegistry registry, String event, ToDoubleFunction<ContentionStats> count) {
+        FunctionCounter.builder("banking.contention", contentionStats, count)
+                .description("Postings that collided with another posting")
+                .tag("event", event)
+                .register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.banking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Business meters that no framework records for us: rejected postings, JWT
+ * validation and password hashing time, the size of CSV exports and rows imported in
+ * bulk. Latency of service operations is timed with {@code @Timed("banking.operation")};
+ * requests, the connection pools and the JVM are measured by Spring Boot.
+ */
+@Component
+public class BankingMetrics {
+    
+    @Autowired
+    private MeterRegistry registry;
+    
+    private Counter insufficientBalance;
+    private Counter targetNotFound;
+    private Timer jwtValid;
+    private Timer jwtInvalid;
+    private DistributionSummary exportRows;
+    private DistributionSummary exportBytes;
+    private Counter importedRows;
+    private Timer passwordEncode;
+    private Timer passwordMatches;
+    
+    @PostConstruct
+    public void init() {
+        insufficientBalance = Counter.builder("banking.rejections")
+                .description("Postings rejected before moving money")
+                .tag("reason", "insufficient_balance")
+                .register(registry);
+        targetNotFound = Counter.builder("banking.rejections")
+                .description("Postings rejected before moving money")
+                .tag("reason", "target_not_found")
+                .register(registry);
+        jwtValid = jwtTimer("valid");
+        jwtInvalid = jwtTimer("invalid");
+        exportRows = DistributionSummary.builder("banking.export.rows")
+                .description("Transactions written per CSV export")
+                .register(registry);
+        exportBytes = DistributionSummary.builder("banking.export.bytes")
+                .description("Bytes sent per CSV export, after compression")
+                .baseUnit("bytes")
+                .register(registry);
+        importedRows = Counter.builder("banking.import.rows")
+                .description("Transactions written by bulk CSV imports")
+                .register(registry);
+        passwordEncode = passwordTimer("encode");
+        passwordMatches = passwordTimer("matches");
+    }
+    
+    private Timer jwtTimer(String outcome) {
+        return Timer.builder("banking.jwt.validation")
+                .description("Time to verify a bearer token, including the verified-token cache")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+    
+    private Timer passwordTimer(String operation) {
+        return Timer.builder("banking.password.hashing")
+                .description("Time to compute one BCrypt hash on a hashing thread, without the wait in the queue")
+                .tag("operation", operation)
+                .register(registry);
+    }
+    
+    public void recordInsufficientBalance() {
+        insufficientBalance.increment();
+    }
+    
+    public void recordTargetNotFound() {
+        targetNotFound.increment();
+    }
+    
+    /**
+     * Record one token validation
+     * @param valid whether the token was accepted
+     */
+    public void recordJwtValidation(long nanos, boolean valid) {
+        (valid ? jwtValid : jwtInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Record one password hash
+     * @param operation encode or matches
+     */
+    public void recordPasswordHashing(String operation, long nanos) {
+        ("encode".equals(operation) ? passwordEncode : passwordMatches).record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void recordExport(long rows, long bytes) {
+        exportRows.record(rows);
+        exportBytes.record(bytes);
+    }
+    
+    public void recordImportedRows(long rows) {
+        importedRows.increment(rows);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.banking.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Counts the JDBC statements prepared on the current thread, so that
+ * {@link StatementCountFilter} can report statements per request. Every connection pool
+ * is wrapped, so statements from Hibernate and from JdbcTemplate are both seen, and
+ * those on a replica connection are counted once.
+ */
+@Component
+public class StatementCounter implements BeanPostProcessor {
+    
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    
+    private static final Set<String> STATEMENT_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource) {
+            return new CountingDataSource((DataSource) bean);
+        }
+        return bean;
+    }
+    
+    /**
+     * Statements prepared on this thread since the last reset
+     */
+    static int current() {
+        return COUNT.get()[0];
+    }
+    
+    static void reset() {
+        COUNT.get()[0] = 0;
+    }
+    
+    // Delegating, so Spring Boot still finds the Hikari pool behind it for its metrics
+    private static final class CountingDataSource extends DelegatingDataSource {
+        
+        CountingDataSource(DataSource pool) {
+            super(pool);
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+        
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+        
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        if (STATEMENT_METHODS.contains(method.getName())) {
+                            COUNT.get()[0]++;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
\ No newline at end of file
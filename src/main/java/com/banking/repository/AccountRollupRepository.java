@@ -0,0 +1,27 @@
+package com.banking.repository;
+
+import com.banking.entity.AccountRollup;
+import com.banking.entity.RollupPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for AccountRollup entity. Rollups are written by
+ * {@link com.banking.service.RollupService} with plain SQL upserts.
+ */
+@Repository
+public interface AccountRollupRepository extends JpaRepository<AccountRollup, Long> {
+    
+    /**
+     * Find a user's rollups of one granularity, oldest first
+     * @param userId the account
+     * @param period day or month rows
+     * @param from first period start to include
+     * @param to last period start to include
+     * @return one row per period that had postings
+     */
+    List<AccountRollup> findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStart(
+            Long userId, RollupPeriod period, LocalDate from, LocalDate to);
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.banking.repository;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.ArchivedTransaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Repository interface for ArchivedTransaction entity. History reads match those of
+ * {@link TransactionRepository}; rows are moved here by
+ * {@link com.banking.service.TransactionArchiver}.
+ */
+@Repository
+public interface ArchivedTransactionRepository extends JpaRepository<ArchivedTransaction, Long>, TransactionHistoryQueries {
+    
+    @Query(name = "ArchivedTransaction.findHistoryByUserId", nativeQuery = true)
+    List<TransactionResponse> findHistoryByUserId(@Param("userId") Long userId);
+    
+    @Query(name = "ArchivedTransaction.findHistoryByUserIdAndDateRange", nativeQuery = true)
+    List<TransactionResponse> findHistoryByUserIdAndDateRange(@Param("userId") Long userId,
+                                                              @Param("fromDate") LocalDateTime fromDate,
+                                                              @Param("toDate") LocalDateTime toDate);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(name = "ArchivedTransaction.findHistoryByUserId", nativeQuery = true)
+    Stream<TransactionResponse> streamHistoryByUserId(@Param("userId") Long userId);
+    
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(name = "ArchivedTransaction.findHistoryByUserIdAndDateRange", nativeQuery = true)
+    Stream<TransactionResponse> streamHistoryByUserIdAndDateRange(@Param("userId") Long userId,
+                                                                  @Param("fromDate") LocalDateTime fromDate,
+                                                                  @Param("toDate") LocalDateTime toDate);
+    
+    @Query(name = "ArchivedTransaction.findFirstPageByUserId", nativeQuery = true)
+    List<TransactionResponse> findFirstPageByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+    
+    @Query(name = "ArchivedTransaction.findPageByUserId", nativeQuery = true)
+    List<TransactionResponse> findPageByUserId(@Param("userId") Long userId,
+                                               @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                               @Param("beforeId") Long beforeId,
+                                               @Param("limit") int limit);
+    
+    @Query(name = "ArchivedTransaction.findPageByUserIdAndDateRange", nativeQuery = true)
+    List<TransactionResponse> findPageByUserIdAndDateRange(@Param("userId") Long userId,
+                                                           @Param("fromDate") LocalDateTime fromDate,
+                                                           @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                                           @Param("beforeId") Long beforeId,
+                                                           @Param("limit") int limit);
+}
\ No newline at end of file
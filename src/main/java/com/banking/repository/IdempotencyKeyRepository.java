@@ -0,0 +1,44 @@
+package com.banking.repository;
+
+import com.banking.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for IdempotencyKey entity
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    
+    /**
+     * Find a user's key
+     * @param userId the user who sent the key
+     * @param key the Idempotency-Key header value
+     * @return the key if it is known
+     */
+    Optional<IdempotencyKey> findByUserIdAndKey(Long userId, String key);
+    
+    /**
+     * Store the response of a completed posting
+     * @return number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.response = :response WHERE k.id = :id")
+    int complete(@Param("id") Long id, @Param("response") String response);
+    
+    /**
+     * Delete keys created before the cutoff
+     * @return number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
\ No newline at end of file
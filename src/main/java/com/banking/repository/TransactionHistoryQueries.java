@@ -0,0 +1,31 @@
+package com.banking.repository;
+
+import com.banking.dto.TransactionResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * History reads shared by the hot and the archived transactions, so that a caller can
+ * run the same query against either table. The queries themselves are declared by
+ * {@link TransactionRepository} and {@link ArchivedTransactionRepository}.
+ */
+public interface TransactionHistoryQueries {
+    
+    List<TransactionResponse> findHistoryByUserId(Long userId);
+    
+    List<TransactionResponse> findHistoryByUserIdAndDateRange(Long userId, LocalDateTime fromDate,
+                                                              LocalDateTime toDate);
+    
+    Stream<TransactionResponse> streamHistoryByUserId(Long userId);
+    
+    Stream<TransactionResponse> streamHistoryByUserIdAndDateRange(Long userId, LocalDateTime fromDate,
+                                                                  LocalDateTime toDate);
+    
+    List<TransactionResponse> findFirstPageByUserId(Long userId, int limit);
+    
+    List<TransactionResponse> findPageByUserId(Long userId, LocalDateTime beforeTimestamp, Long beforeId, int limit);
+    
+    List<TransactionResponse> findPageByUserIdAndDateRange(Long userId, LocalDateTime fromDate,
+                                                           LocalDateTime beforeTimestamp, Long beforeId, int limit);
+}
\ No newline at end of file
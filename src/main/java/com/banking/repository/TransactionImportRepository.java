@@ -0,0 +1,12 @@
+package com.banking.repository;
+
+import com.banking.entity.TransactionImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for TransactionImport entity
+ */
+@Repository
+public interface TransactionImportRepository extends JpaRepository<TransactionImport, Long> {
+}
\ No newline at end of file
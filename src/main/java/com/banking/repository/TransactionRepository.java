@@ -1,26 +1,35 @@
 package com.banking.repository;
 
+import com.banking.dto.TransactionResponse;
 import com.banking.entity.Transaction;
 import com.banking.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /**
  * Repository interface for Transaction entity
  */
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionHistoryQueries {
     
     /**
      * Find all transactions for a user (both sent and received) ordered by timestamp descending
      * @param user the user to find transactions for
      * @return list of transactions
      */
-    @Query("SELECT t FROM Transaction t WHERE t.sender = :user OR t.receiver = :user ORDER BY t.timestamp DESC")
+    @Query(nativeQuery = true, value = "SELECT h.* FROM ((" +
+           "SELECT t.* FROM transactions t WHERE t.sender_id = :#{#user.id}) UNION ALL (" +
+           "SELECT t.* FROM transactions t WHERE t.receiver_id = :#{#user.id} " +
+           "AND (t.sender_id IS NULL OR t.sender_id <> :#{#user.id}))) h ORDER BY h.timestamp DESC, h.id DESC")
     List<Transaction> findAllByUser(@Param("user") User user);
     
     /**
@@ -30,12 +39,99 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
      * @param toDate end date
      * @return list of transactions within the date range
      */
-    @Query("SELECT t FROM Transaction t WHERE (t.sender = :user OR t.receiver = :user) " +
-           "AND t.timestamp >= :fromDate AND t.timestamp <= :toDate ORDER BY t.timestamp DESC")
-    List<Transaction> findByUserAndDateRange(@Param("user") User user, 
-                                           @Param("fromDate") LocalDateTime fromDate, 
+    @Query(nativeQuery = true, value = "SELECT h.* FROM ((" +
+           "SELECT t.* FROM transactions t WHERE t.sender_id = :#{#user.id} " +
+           "AND t.timestamp >= :fromDate AND t.timestamp <= :toDate) UNION ALL (" +
+           "SELECT t.* FROM transactions t WHERE t.receiver_id = :#{#user.id} " +
+           "AND (t.sender_id IS NULL OR t.sender_id <> :#{#user.id}) " +
+           "AND t.timestamp >= :fromDate AND t.timestamp <= :toDate)) h ORDER BY h.timestamp DESC, h.id DESC")
+    List<Transaction> findByUserAndDateRange(@Param("user") User user,
+                                           @Param("fromDate") LocalDateTime fromDate,
                                            @Param("toDate") LocalDateTime toDate);
     
+    /**
+     * Find the history of a user as response rows in a single query
+     * @param userId the user to find transactions for
+     * @return transactions ordered by timestamp and id descending
+     */
+    @Query(name = "Transaction.findHistoryByUserId", nativeQuery = true)
+    List<TransactionResponse> findHistoryByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Find the history of a user within a date range as response rows in a single query
+     * @param userId the user to find transactions for
+     * @param fromDate start date
+     * @param toDate end date
+     * @return transactions ordered by timestamp and id descending
+     */
+    @Query(name = "Transaction.findHistoryByUserIdAndDateRange", nativeQuery = true)
+    List<TransactionResponse> findHistoryByUserIdAndDateRange(@Param("userId") Long userId,
+                                                              @Param("fromDate") LocalDateTime fromDate,
+                                                              @Param("toDate") LocalDateTime toDate);
+    
+    /**
+     * Stream the history of a user for export. Rows are fetched from the database in
+     * chunks; the caller must consume the stream inside a transaction and close it.
+     * @param userId the user to stream transactions for
+     * @return transactions ordered by timestamp and id descending
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(name = "Transaction.findHistoryByUserId", nativeQuery = true)
+    Stream<TransactionResponse> streamHistoryByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Stream the history of a user within a date range for export
+     * @param userId the user to stream transactions for
+     * @param fromDate start date
+     * @param toDate end date
+     * @return transactions ordered by timestamp and id descending
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(name = "Transaction.findHistoryByUserIdAndDateRange", nativeQuery = true)
+    Stream<TransactionResponse> streamHistoryByUserIdAndDateRange(@Param("userId") Long userId,
+                                                                  @Param("fromDate") LocalDateTime fromDate,
+                                                                  @Param("toDate") LocalDateTime toDate);
+    
+    /**
+     * Find the newest transactions of a user, first page of a keyset scan
+     * @param userId the user to find transactions for
+     * @param limit maximum number of rows
+     * @return transactions ordered by timestamp and id descending
+     */
+    @Query(name = "Transaction.findFirstPageByUserId", nativeQuery = true)
+    List<TransactionResponse> findFirstPageByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+    
+    /**
+     * Find the transactions of a user that come after a cursor position
+     * @param userId the user to find transactions for
+     * @param beforeTimestamp timestamp of the last row already returned
+     * @param beforeId id of the last row already returned
+     * @param limit maximum number of rows
+     * @return transactions ordered by timestamp and id descending
+     */
+    @Query(name = "Transaction.findPageByUserId", nativeQuery = true)
+    List<TransactionResponse> findPageByUserId(@Param("userId") Long userId,
+                                               @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                               @Param("beforeId") Long beforeId,
+                                               @Param("limit") int limit);
+    
+    /**
+     * Find the transactions of a user within a date range that come after a cursor position.
+     * The first page passes the end of the range as the cursor timestamp.
+     * @param userId the user to find transactions for
+     * @param fromDate start date
+     * @param beforeTimestamp timestamp of the last row already returned
+     * @param beforeId id of the last row already returned
+     * @param limit maximum number of rows
+     * @return transactions ordered by timestamp and id descending
+     */
+    @Query(name = "Transaction.findPageByUserIdAndDateRange", nativeQuery = true)
+    List<TransactionResponse> findPageByUserIdAndDateRange(@Param("userId") Long userId,
+                                                           @Param("fromDate") LocalDateTime fromDate,
+                                                           @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                                           @Param("beforeId") Long beforeId,
+                                                           @Param("limit") int limit);
+    
     /**
      * Find all transactions sent by a user
      * @param sender the sender user
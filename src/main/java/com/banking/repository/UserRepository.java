@@ -1,22 +1,49 @@
 package com.banking.repository;
 
 import com.banking.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
- * Repository interface for User entity
+ * Repository interface for User entity. Lookups by username and balance updates are
+ * implemented in {@link UserRepositoryImpl} so that they work with the second-level cache.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     
     /**
-     * Find user by username
-     * @param username the username to search for
-     * @return Optional containing the user if found
+     * Resolve many usernames in one query without loading the entities
+     * @param usernames the usernames to look up
+     * @return one {@code [username, id]} pair per existing user
+     */
+    @Query("SELECT u.username, u.id FROM User u WHERE u.username IN :usernames")
+    List<Object[]> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+    
+    /**
+     * Read a user's balance without loading the entity
+     * @param id the user id
+     * @return Optional containing the balance if the user exists
+     */
+    @Query("SELECT u.balance FROM User u WHERE u.id = :id")
+    Optional<BigDecimal> findBalanceById(@Param("id") Long id);
+    
+    /**
+     * Find user by id and hold a write lock on the row until the transaction ends.
+     * Callers locking several users must do so in ascending id order.
+     * @param id the user id
+     * @return Optional containing the locked user if found
      */
-    Optional<User> findByUsername(String username);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
     
     /**
      * Find user by email
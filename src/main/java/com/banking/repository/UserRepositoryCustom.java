@@ -0,0 +1,58 @@
+package com.banking.repository;
+
+import com.banking.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * User operations that go around Spring Data's query derivation to work with the
+ * second-level cache. Balances are only ever decided by the conditional updates below
+ * or by rows read under a lock, never by a cached entity, so the cache may lag a
+ * balance briefly without affecting correctness.
+ */
+public interface UserRepositoryCustom {
+    
+    /**
+     * Find user by username, resolved through the natural-id cache
+     * @param username the username to search for
+     * @return Optional containing the user if found
+     */
+    Optional<User> findByUsername(String username);
+    
+    /**
+     * Atomically add to a user's balance
+     * @param id the user id
+     * @param amount the amount to add
+     * @param now the update timestamp
+     * @return number of rows updated, 0 if the user does not exist
+     */
+    int creditBalance(Long id, BigDecimal amount, LocalDateTime now);
+    
+    /**
+     * Atomically subtract from a user's balance if it covers the amount
+     * @param id the user id
+     * @param amount the amount to subtract
+     * @param now the update timestamp
+     * @return number of rows updated, 0 if the balance is insufficient
+     */
+    int debitBalance(Long id, BigDecimal amount, LocalDateTime now);
+    
+    /**
+     * Replace a user's password hash, leaving the rest of the row as it is
+     * @param id the user id
+     * @param password the new hash
+     * @param now the update timestamp
+     * @return number of rows updated, 0 if the user does not exist
+     */
+    int updatePassword(Long id, String password, LocalDateTime now);
+    
+    /**
+     * Drop cached users whose row was changed with SQL, once the current transaction
+     * commits (immediately when there is none)
+     * @param ids ids of the changed users
+     */
+    void evictFromCache(Collection<Long> ids);
+}
\ No newline at end of file
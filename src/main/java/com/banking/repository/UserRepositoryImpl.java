@@ -0,0 +1,102 @@
+package com.banking.repository;
+
+import com.banking.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link UserRepositoryCustom}. Balance updates are plain SQL rather
+ * than JPQL bulk updates: Hibernate answers a bulk update of an entity by emptying its
+ * whole cache region, while here only the changed user is evicted.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    
+    private static final String CREDIT_BALANCE =
+            "UPDATE users SET balance = balance + ?, version = version + 1, updated_at = ? WHERE id = ?";
+    
+    private static final String DEBIT_BALANCE =
+            "UPDATE users SET balance = balance - ?, version = version + 1, updated_at = ? WHERE id = ? AND balance >= ?";
+    
+    private static final String UPDATE_PASSWORD =
+            "UPDATE users SET password = ?, version = version + 1, updated_at = ? WHERE id = ?";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+    
+    @Override
+    @Transactional
+    public int creditBalance(Long id, BigDecimal amount, LocalDateTime now) {
+        int updated = jdbcTemplate.update(CREDIT_BALANCE, amount, Timestamp.valueOf(now), id);
+        if (updated > 0) {
+            evictFromCache(List.of(id));
+        }
+        return updated;
+    }
+    
+    @Override
+    @Transactional
+    public int debitBalance(Long id, BigDecimal amount, LocalDateTime now) {
+        int updated = jdbcTemplate.update(DEBIT_BALANCE, amount, Timestamp.valueOf(now), id, amount);
+        if (updated > 0) {
+            evictFromCache(List.of(id));
+        }
+        return updated;
+    }
+    
+    @Override
+    @Transactional
+    public int updatePassword(Long id, String password, LocalDateTime now) {
+        int updated = jdbcTemplate.update(UPDATE_PASSWORD, password, Timestamp.valueOf(now), id);
+        if (updated > 0) {
+            evictFromCache(List.of(id));
+        }
+        return updated;
+    }
+    
+    @Override
+    public void evictFromCache(Collection<Long> ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(ids);
+            return;
+        }
+        // Evicting earlier would let a concurrent reader cache the row as it was before the commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(ids);
+            }
+        });
+    }
+    
+    private void evict(Collection<Long> ids) {
+        for (Long id : ids) {
+            entityManagerFactory.getCache().evict(User.class, id);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.banking.security;
+
+import com.banking.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission gate in front of every request. At most as many requests run at once as
+ * the JDBC pool has connections; the rest wait here, in arrival order, on a semaphore.
+ * With virtual threads a waiting request costs almost nothing, whereas letting them
+ * through would pile them up inside the pool and time them out there. Requests that
+ * cannot get in within the timeout are turned away with 503 and a Retry-After header.
+ * <p>
+ * A streamed download keeps its permit until the async response completes, because it
+ * keeps its connection that long as well. Signup and login are bounded by the password
+ * hashing pool instead: they spend most of their time hashing, not on a connection, and
+ * would otherwise hold every permit during a burst of logins.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    
+    @Autowired
+    private Environment environment;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxConcurrent;
+    
+    @Value("${app.admission.timeout-ms:2000}")
+    private long timeoutMs;
+    
+    @Value("${app.admission.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+    
+    private Semaphore permits;
+    
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent, true);
+        logger.info("Admission control {}: {} concurrent requests, {} threads",
+                enabled ? "enabled" : "disabled", maxConcurrent,
+                Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform");
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Health checks and scrapes must get through while the gate is full
+        String uri = request.getRequestURI();
+        return !enabled || uri.startsWith("/actuator/") || uri.startsWith("/auth/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.increment();
+            reject(response);
+            return;
+        }
+        
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+    
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        queued.increment();
+        try {
+            return permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Server is busy, please retry"));
+    }
+    
+    /**
+     * Number of requests that had to wait for a permit
+     */
+    public long getQueued() {
+        return queued.sum();
+    }
+    
+    /**
+     * Number of requests turned away after waiting the full timeout
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+    
+    /**
+     * Number of requests currently admitted
+     */
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+    
+    /**
+     * A request's permit, released exactly once when the request or its async part ends
+     */
+    private class Permit implements AsyncListener {
+        
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle of the same request
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.banking.security;
 
+import com.banking.metrics.BankingMetrics;
 import com.banking.service.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,6 +32,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
     
+    @Autowired
+    private BankingMetrics bankingMetrics;
+    
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
     
     @Override
@@ -38,8 +43,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            Claims claims = jwt != null ? validate(jwt) : null;
+            if (claims != null) {
+                String username = claims.getSubject();
                 
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication = 
@@ -55,6 +61,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    private Claims validate(String jwt) {
+        long start = System.nanoTime();
+        Claims claims = jwtUtils.parseAndValidate(jwt);
+        bankingMetrics.recordJwtValidation(System.nanoTime() - start, claims != null);
+        return claims;
+    }
+    
     /**
      * Extract JWT token from Authorization header
      */
@@ -0,0 +1,152 @@
+package com.banking.security;
+
+import com.banking.exception.BankingErrors;
+import com.banking.metrics.BankingMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt on a small thread pool of its own. Hashing a password takes tens of
+ * milliseconds of CPU, so a burst of logins run on request threads would take every
+ * core and every thread from the other endpoints. Here at most {@code threads} hashes
+ * run at once and at most {@code queue-capacity} wait; beyond that a login or signup
+ * is refused straight away with 503, before it costs any CPU. The calling thread waits
+ * for its own hash.
+ * <p>
+ * Stored hashes whose cost differs from {@code app.security.bcrypt.strength} report
+ * that they need upgrading, so changing the strength re-hashes each password at the
+ * user's next successful login.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+    
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    
+    @Autowired
+    private BankingMetrics bankingMetrics;
+    
+    @Value("${app.security.bcrypt.strength:10}")
+    private int strength;
+    
+    // 0 for half the available processors
+    @Value("${app.security.password-hashing.threads:0}")
+    private int threads;
+    
+    @Value("${app.security.password-hashing.queue-capacity:16}")
+    private int queueCapacity;
+    
+    private final LongAdder rejected = new LongAdder();
+    
+    private BCryptPasswordEncoder bcrypt;
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void init() {
+        bcrypt = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        logger.info("Password hashing: BCrypt strength {}, {} threads, {} queued", strength, poolSize, queueCapacity);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run("encode", () -> bcrypt.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run("matches", () -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_HASH.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+    
+    private <T> T run(String operation, Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return hashing.call();
+                } finally {
+                    bankingMetrics.recordPasswordHashing(operation, System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw BankingErrors.AUTH_BUSY;
+        }
+        
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw BankingErrors.INTERRUPTED;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /**
+     * Number of hashes waiting for a thread
+     */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+    
+    /**
+     * Number of hashes being computed
+     */
+    public int getActive() {
+        return executor.getActiveCount();
+    }
+    
+    /**
+     * Number of logins and signups refused because the queue was full
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
\ No newline at end of file
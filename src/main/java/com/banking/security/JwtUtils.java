@@ -1,7 +1,12 @@
 package com.banking.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,7 +15,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class for JWT token operations
@@ -26,6 +36,57 @@ public class JwtUtils {
     @Value("${app.jwt.expiration}")
     private int jwtExpirationMs;
     
+    @Value("${app.jwt.cache.enabled:true}")
+    private boolean cacheEnabled;
+    
+    @Value("${app.jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+    
+    @Value("${app.jwt.cache.max-ttl-seconds:300}")
+    private long cacheMaxTtlSeconds;
+    
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey key;
+    private JwtParser parser;
+    
+    // SHA-256 of an already verified token -> its claims, kept no longer than the token is valid
+    private Cache<ByteBuffer, Claims> verifiedTokens;
+    
+    @PostConstruct
+    public void init() {
+        // Fails at startup rather than on first login if the secret is too short for HS512
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        
+        if (cacheEnabled) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                        @Override
+                        public long expireAfterCreate(ByteBuffer digest, Claims claims, long currentTime) {
+                            long untilExpiry = claims.getExpiration().getTime() - System.currentTimeMillis();
+                            return TimeUnit.MILLISECONDS.toNanos(
+                                    Math.max(0, Math.min(untilExpiry, cacheMaxTtlSeconds * 1000)));
+                        }
+                        
+                        @Override
+                        public long expireAfterUpdate(ByteBuffer digest, Claims claims, long currentTime,
+                                                      long currentDuration) {
+                            return currentDuration;
+                        }
+                        
+                        @Override
+                        public long expireAfterRead(ByteBuffer digest, Claims claims, long currentTime,
+                                                    long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+    }
+    
     /**
      * Generate JWT token from authentication
      */
@@ -38,8 +99,6 @@ public class JwtUtils {
      * Generate JWT token from username
      */
     public String generateTokenFromUsername(String username) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
@@ -48,41 +107,68 @@ public class JwtUtils {
                 .compact();
     }
     
+    /**
+     * Verify a JWT token and return its claims in one pass. Tokens seen before are
+     * answered from the verified-token cache without parsing or checking the signature.
+     * @return the claims, or null if the token is invalid or expired
+     */
+    public Claims parseAndValidate(String authToken) {
+        if (verifiedTokens == null) {
+            return verify(authToken);
+        }
+        
+        ByteBuffer digest = digest(authToken);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null && claims.getExpiration().getTime() > System.currentTimeMillis()) {
+            return claims;
+        }
+        
+        claims = verify(authToken);
+        if (claims != null && claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+    
     /**
      * Get username from JWT token
      */
     public String getUserNameFromJwtToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = parseAndValidate(token);
+        return claims != null ? claims.getSubject() : null;
     }
     
     /**
      * Validate JWT token
      */
     public boolean validateJwtToken(String authToken) {
+        return parseAndValidate(authToken) != null;
+    }
+    
+    private Claims verify(String authToken) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
         
-        return false;
+        return null;
+    }
+    
+    private static ByteBuffer digest(String authToken) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(authToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.banking.security;
+
+import com.banking.dto.ApiResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link RateLimiter} in the security filter chain, after the JWT filter so
+ * that signed-in users are limited by username wherever they connect from. Signup and
+ * login are limited by client address. Other requests without a user are left to fail
+ * authentication, which costs no database access. Refused requests are answered with
+ * 429 and a Retry-After header.
+ * <p>
+ * Created by {@link WebSecurityConfig} rather than as a bean, so that it only runs inside
+ * the security chain.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private final RateLimiter rateLimiter;
+    
+    // Always the same, so a refusal does not pay for serializing it
+    private final byte[] rejection;
+    
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.rateLimiter = rateLimiter;
+        this.rejection = objectMapper.writeValueAsBytes(
+                ApiResponse.error("rate_limited", "Too many requests, please retry later"));
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !rateLimiter.isEnabled() || uri.startsWith("/actuator/") || uri.startsWith("/h2-console/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long wait = acquire(request);
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    private long acquire(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/auth/")) {
+            return rateLimiter.tryAcquire(RateLimiter.Endpoint.AUTH, request.getRemoteAddr());
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return 0;
+        }
+        String method = request.getMethod();
+        RateLimiter.Endpoint endpoint = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) ?
+                RateLimiter.Endpoint.READ : RateLimiter.Endpoint.WRITE;
+        return rateLimiter.tryAcquire(endpoint, authentication.getName());
+    }
+    
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        // Rounded up, so a client that waits as told is let in
+        long retryAfterSeconds = TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejection.length);
+        response.getOutputStream().write(rejection);
+    }
+}
\ No newline at end of file
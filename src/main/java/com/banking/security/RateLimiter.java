@@ -0,0 +1,144 @@
+package com.banking.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per client and endpoint class, refilled lazily. A bucket is a single
+ * timestamp, the time at which it would be full again (the generic cell rate algorithm):
+ * taking a token moves it one refill interval ahead, and a request is refused when that
+ * would put it further than a full bucket's worth of tokens in the future. Taking a token
+ * is one compare-and-set on that timestamp, so requests never lock, and nothing runs in
+ * the background to refill buckets.
+ * <p>
+ * Buckets live in one concurrent map per endpoint class. A bucket that has refilled
+ * completely holds no information, so a periodic sweep drops those, and the maps only
+ * hold clients seen within the last refill period.
+ */
+@Component
+public class RateLimiter {
+    
+    /**
+     * Endpoint classes limited separately
+     */
+    public enum Endpoint {
+        /** Signup and login, per client address */
+        AUTH,
+        /** Reads of a signed-in user */
+        READ,
+        /** Postings and other writes of a signed-in user */
+        WRITE
+    }
+    
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.rate-limit.auth.per-second:2}")
+    private double authPerSecond;
+    
+    @Value("${app.rate-limit.auth.burst:20}")
+    private int authBurst;
+    
+    @Value("${app.rate-limit.read.per-second:20}")
+    private double readPerSecond;
+    
+    @Value("${app.rate-limit.read.burst:40}")
+    private int readBurst;
+    
+    @Value("${app.rate-limit.write.per-second:10}")
+    private double writePerSecond;
+    
+    @Value("${app.rate-limit.write.burst:20}")
+    private int writeBurst;
+    
+    private final Map<Endpoint, Limit> limits = new EnumMap<>(Endpoint.class);
+    
+    @PostConstruct
+    public void init() {
+        limits.put(Endpoint.AUTH, new Limit(authPerSecond, authBurst));
+        limits.put(Endpoint.READ, new Limit(readPerSecond, readBurst));
+        limits.put(Endpoint.WRITE, new Limit(writePerSecond, writeBurst));
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Take a token from a client's bucket
+     * @param key username, or client address for {@link Endpoint#AUTH}
+     * @return 0 if the request may proceed, otherwise the nanoseconds until it would be allowed
+     */
+    public long tryAcquire(Endpoint endpoint, String key) {
+        return limits.get(endpoint).tryAcquire(key, System.nanoTime());
+    }
+    
+    /**
+     * Drop buckets that have refilled completely
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Limit limit : limits.values()) {
+            // A request that fetched a bucket just before it is dropped updates a bucket no
+            // longer in the map; that client gets at most one token more than its limit
+            limit.buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+    
+    /**
+     * Number of requests refused for an endpoint class
+     */
+    public long getRejected(Endpoint endpoint) {
+        return limits.get(endpoint).rejected.sum();
+    }
+    
+    /**
+     * Number of clients with a bucket that has not refilled yet, or not been swept yet
+     */
+    public int getBuckets(Endpoint endpoint) {
+        return limits.get(endpoint).buckets.size();
+    }
+    
+    private static final class Limit {
+        
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final LongAdder rejected = new LongAdder();
+        
+        // Nanoseconds per token, and how far ahead of now a bucket may run when empty
+        private final long interval;
+        private final long capacity;
+        
+        private Limit(double perSecond, int burst) {
+            interval = (long) (1_000_000_000L / perSecond);
+            capacity = interval * Math.max(1, burst);
+        }
+        
+        private long tryAcquire(String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+            }
+            while (true) {
+                long full = bucket.get();
+                long next = (full - now > 0 ? full : now) + interval;
+                long wait = next - now - capacity;
+                if (wait > 0) {
+                    rejected.increment();
+                    return wait;
+                }
+                if (bucket.compareAndSet(full, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
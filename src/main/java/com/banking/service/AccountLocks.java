@@ -0,0 +1,87 @@
+package com.banking.service;
+
+import com.banking.exception.BankingErrors;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-JVM locks keyed by account id. Postings on the same node that touch
+ * the same accounts queue here instead of on database row locks. Stripes are always
+ * taken in ascending index order, so two accounts can never be locked in opposite
+ * orders by different threads.
+ */
+@Component
+public class AccountLocks {
+    
+    @Autowired
+    private ContentionStats contentionStats;
+    
+    @Value("${app.posting.lock-stripes:1024}")
+    private int stripeCount;
+    
+    @Value("${app.posting.lock-timeout-ms:2000}")
+    private long lockTimeoutMs;
+    
+    private ReentrantLock[] stripes;
+    
+    @PostConstruct
+    public void init() {
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * Run the work while holding the stripes of both accounts
+     */
+    public <T> T withLocks(long firstAccountId, long secondAccountId, Supplier<T> work) {
+        int first = stripeOf(firstAccountId);
+        int second = stripeOf(secondAccountId);
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        
+        acquire(stripes[low]);
+        try {
+            if (high != low) {
+                acquire(stripes[high]);
+            }
+            try {
+                return work.get();
+            } finally {
+                if (high != low) {
+                    stripes[high].unlock();
+                }
+            }
+        } finally {
+            stripes[low].unlock();
+        }
+    }
+    
+    private void acquire(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            return;
+        }
+        contentionStats.recordLocalLockWait();
+        try {
+            if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw BankingErrors.ACCOUNT_BUSY;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw BankingErrors.INTERRUPTED;
+        }
+    }
+    
+    private int stripeOf(long accountId) {
+        // Spread sequential ids so neighbouring accounts do not share stripes
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) stripes.length);
+    }
+}
\ No newline at end of file
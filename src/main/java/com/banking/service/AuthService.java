@@ -4,6 +4,7 @@ import com.banking.dto.JwtResponse;
 import com.banking.dto.LoginRequest;
 import com.banking.dto.SignupRequest;
 import com.banking.entity.User;
+import com.banking.exception.BankingErrors;
 import com.banking.repository.UserRepository;
 import com.banking.security.JwtUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,12 +54,12 @@ public class AuthService {
     public User registerUser(SignupRequest signUpRequest) {
         // Check if username already exists
         if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-            throw new RuntimeException("Error: Username is already taken!");
+            throw BankingErrors.USERNAME_TAKEN;
         }
         
         // Check if email already exists
         if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            throw new RuntimeException("Error: Email is already in use!");
+            throw BankingErrors.EMAIL_IN_USE;
         }
         
         // Create new user's account
@@ -1,188 +1,414 @@
 package com.banking.service;
 
 import com.banking.dto.BalanceResponse;
+import com.banking.dto.SummaryResponse;
+import com.banking.dto.TransactionCursor;
+import com.banking.dto.TransactionPage;
 import com.banking.dto.TransactionRequest;
 import com.banking.dto.TransactionResponse;
+import com.banking.entity.RollupPeriod;
 import com.banking.entity.Transaction;
 import com.banking.entity.TransactionType;
 import com.banking.entity.User;
+import com.banking.exception.BankingErrors;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.BankingMetrics;
+import com.banking.repository.AccountRollupRepository;
+import com.banking.repository.ArchivedTransactionRepository;
+import com.banking.repository.TransactionHistoryQueries;
 import com.banking.repository.TransactionRepository;
 import com.banking.repository.UserRepository;
+import com.banking.util.CsvExportUtil;
+import com.banking.util.HistoryMerge;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * Service for banking operations
+ * Service for banking operations.
+ * Postings are not wrapped in a method-level transaction: each attempt gets its own
+ * transaction from {@link ContentionRetry} and moves balances with conditional
+ * updates instead of reading and saving the User entity. Reads run in read-only
+ * transactions, which skip dirty checking and may be served by a replica. History
+ * reads consult the transaction archive only when the range reaches back into it.
  */
 @Service
-@Transactional
 public class BankingService {
     
+    // Tagged with the method name by the timed aspect
+    private static final String OPERATION_TIMER = "banking.operation";
+    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private TransactionRepository transactionRepository;
     
+    @Autowired
+    private ContentionRetry contentionRetry;
+    
+    @Autowired
+    private ContentionStats contentionStats;
+    
+    @Autowired
+    private AccountLocks accountLocks;
+    
+    @Autowired
+    private CsvExportUtil csvExportUtil;
+    
+    @Autowired
+    private BankingMetrics bankingMetrics;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Autowired
+    private AccountRollupRepository accountRollupRepository;
+    
+    @Autowired
+    private ArchivedTransactionRepository archivedTransactionRepository;
+    
+    @Autowired
+    private TransactionArchiver transactionArchiver;
+    
+    // Present only when app.ledger.engine=sharded
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+    
     /**
-     * Get current authenticated user
+     * Get current authenticated user. The principal already carries the id and
+     * username, so identifying the caller needs no query.
      */
-    private User getCurrentUser() {
+    private UserPrincipal getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return (UserPrincipal) authentication.getPrincipal();
     }
     
     /**
      * Get account balance for current user
      */
+    @Timed(OPERATION_TIMER)
+    @Transactional(readOnly = true)
     public BalanceResponse getBalance() {
-        User user = getCurrentUser();
-        return new BalanceResponse(user.getUsername(), user.getBalance());
+        UserPrincipal user = getCurrentUser();
+        if (ledgerEngine != null) {
+            return new BalanceResponse(user.getUsername(), ledgerEngine.getBalance(user.getId()));
+        }
+        BigDecimal balance = userRepository.findBalanceById(user.getId())
+                .orElseThrow(() -> BankingErrors.USER_NOT_FOUND);
+        return new BalanceResponse(user.getUsername(), balance);
     }
     
     /**
      * Credit money to current user's account
      */
+    @Timed(OPERATION_TIMER)
     public TransactionResponse creditMoney(TransactionRequest request) {
-        User user = getCurrentUser();
-        
-        // Update user balance
-        user.setBalance(user.getBalance().add(request.getAmount()));
-        userRepository.save(user);
-        
-        // Create transaction record
-        Transaction transaction = new Transaction(
-                null, // No sender for credit
-                user,
-                request.getAmount(),
-                TransactionType.CREDIT,
-                request.getDescription() != null ? request.getDescription() : "Account credited"
-        );
+        UserPrincipal user = getCurrentUser();
+        String description = request.getDescription() != null ? request.getDescription() : "Account credited";
         
-        transaction = transactionRepository.save(transaction);
+        if (ledgerEngine != null) {
+            return ledgerEngine.credit(user.getId(), user.getUsername(), request.getAmount(), description);
+        }
         
-        return convertToTransactionResponse(transaction);
+        return contentionRetry.execute(() -> {
+            // Update user balance
+            if (userRepository.creditBalance(user.getId(), request.getAmount(), LocalDateTime.now()) == 0) {
+                throw BankingErrors.USER_NOT_FOUND;
+            }
+            
+            // Create transaction record
+            Transaction transaction = new Transaction(
+                    null, // No sender for credit
+                    userRepository.getReferenceById(user.getId()),
+                    request.getAmount(),
+                    TransactionType.CREDIT,
+                    description
+            );
+            
+            transaction = transactionRepository.save(transaction);
+            rollupService.record(TransactionType.CREDIT, null, user.getId(), request.getAmount(),
+                    transaction.getTimestamp());
+            
+            return toResponse(transaction, null, user.getUsername());
+        });
     }
     
     /**
      * Debit money from current user's account
      */
+    @Timed(OPERATION_TIMER)
     public TransactionResponse debitMoney(TransactionRequest request) {
-        User user = getCurrentUser();
+        UserPrincipal user = getCurrentUser();
+        String description = request.getDescription() != null ? request.getDescription() : "Account debited";
         
-        // Check if user has sufficient balance
-        if (user.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        if (ledgerEngine != null) {
+            return ledgerEngine.debit(user.getId(), user.getUsername(), request.getAmount(), description);
         }
         
-        // Update user balance
-        user.setBalance(user.getBalance().subtract(request.getAmount()));
-        userRepository.save(user);
-        
-        // Create transaction record
-        Transaction transaction = new Transaction(
-                user,
-                null, // No receiver for debit
-                request.getAmount(),
-                TransactionType.DEBIT,
-                request.getDescription() != null ? request.getDescription() : "Account debited"
-        );
-        
-        transaction = transactionRepository.save(transaction);
-        
-        return convertToTransactionResponse(transaction);
+        return contentionRetry.execute(() -> {
+            // Update user balance only if it covers the amount
+            debitOrReject(user.getId(), request.getAmount());
+            
+            // Create transaction record
+            Transaction transaction = new Transaction(
+                    userRepository.getReferenceById(user.getId()),
+                    null, // No receiver for debit
+                    request.getAmount(),
+                    TransactionType.DEBIT,
+                    description
+            );
+            
+            transaction = transactionRepository.save(transaction);
+            rollupService.record(TransactionType.DEBIT, user.getId(), null, request.getAmount(),
+                    transaction.getTimestamp());
+            
+            return toResponse(transaction, user.getUsername(), null);
+        });
     }
     
     /**
      * Transfer money to another user
      */
+    @Timed(OPERATION_TIMER)
     public TransactionResponse transferMoney(TransactionRequest request) {
-        User sender = getCurrentUser();
+        UserPrincipal sender = getCurrentUser();
         
         // Find receiver by username
-        User receiver = userRepository.findByUsername(request.getTargetUsername())
-                .orElseThrow(() -> new RuntimeException("Target user not found"));
-        
-        // Check if sender has sufficient balance
-        if (sender.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        User receiver = userRepository.findByUsername(request.getTargetUsername()).orElse(null);
+        if (receiver == null) {
+            bankingMetrics.recordTargetNotFound();
+            throw BankingErrors.TARGET_NOT_FOUND;
         }
         
         // Check if sender is not transferring to themselves
         if (sender.getId().equals(receiver.getId())) {
-            throw new RuntimeException("Cannot transfer money to yourself");
+            throw BankingErrors.SELF_TRANSFER;
         }
         
-        // Update balances
-        sender.setBalance(sender.getBalance().subtract(request.getAmount()));
-        receiver.setBalance(receiver.getBalance().add(request.getAmount()));
-        
-        userRepository.save(sender);
-        userRepository.save(receiver);
-        
-        // Create transaction record
-        Transaction transaction = new Transaction(
-                sender,
-                receiver,
-                request.getAmount(),
-                TransactionType.TRANSFER,
-                request.getDescription() != null ? request.getDescription() : 
-                    "Transfer from " + sender.getUsername() + " to " + receiver.getUsername()
-        );
+        String description = request.getDescription() != null ? request.getDescription() :
+                "Transfer from " + sender.getUsername() + " to " + receiver.getUsername();
+        
+        if (ledgerEngine != null) {
+            return ledgerEngine.transfer(sender.getId(), sender.getUsername(), receiver.getId(), receiver.getUsername(),
+                    request.getAmount(), description);
+        }
         
-        transaction = transactionRepository.save(transaction);
+        long start = System.nanoTime();
+        try {
+            // Same-node transfers on these accounts queue in the JVM rather than on row locks
+            return accountLocks.withLocks(sender.getId(), receiver.getId(), () -> contentionRetry.execute(() -> {
+                lockInIdOrder(sender.getId(), receiver.getId());
+                
+                // Update balances, debiting only if the sender's balance covers the amount
+                LocalDateTime now = debitOrReject(sender.getId(), request.getAmount());
+                userRepository.creditBalance(receiver.getId(), request.getAmount(), now);
+                
+                // Create transaction record
+                Transaction transaction = new Transaction(
+                        userRepository.getReferenceById(sender.getId()),
+                        receiver,
+                        request.getAmount(),
+                        TransactionType.TRANSFER,
+                        description
+                );
+                
+                transaction = transactionRepository.save(transaction);
+                rollupService.record(TransactionType.TRANSFER, sender.getId(), receiver.getId(), request.getAmount(),
+                        transaction.getTimestamp());
+                
+                return toResponse(transaction, sender.getUsername(), receiver.getUsername());
+            }));
+        } finally {
+            contentionStats.recordTransferLatency(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Take row locks on both users in ascending id order so that concurrent
+     * A-to-B and B-to-A transfers cannot deadlock each other
+     */
+    private void lockInIdOrder(Long firstId, Long secondId) {
+        Long lowId = firstId < secondId ? firstId : secondId;
+        Long highId = firstId < secondId ? secondId : firstId;
         
-        return convertToTransactionResponse(transaction);
+        userRepository.findByIdForUpdate(lowId).orElseThrow(() -> BankingErrors.USER_NOT_FOUND);
+        userRepository.findByIdForUpdate(highId).orElseThrow(() -> BankingErrors.USER_NOT_FOUND);
+    }
+    
+    /**
+     * Conditionally debit a user in the current transaction
+     * @return the timestamp written with the update
+     */
+    private LocalDateTime debitOrReject(Long userId, BigDecimal amount) {
+        LocalDateTime now = LocalDateTime.now();
+        if (userRepository.debitBalance(userId, amount, now) == 0) {
+            contentionStats.recordRejectedDebit();
+            bankingMetrics.recordInsufficientBalance();
+            throw BankingErrors.INSUFFICIENT_BALANCE;
+        }
+        return now;
     }
     
     /**
      * Get transaction history for current user
      */
+    @Timed(OPERATION_TIMER)
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionHistory() {
-        User user = getCurrentUser();
-        List<Transaction> transactions = transactionRepository.findAllByUser(user);
-        
-        return transactions.stream()
-                .map(this::convertToTransactionResponse)
-                .collect(Collectors.toList());
+        UserPrincipal user = getCurrentUser();
+        List<TransactionResponse> transactions = transactionRepository.findHistoryByUserId(user.getId());
+        if (!transactionArchiver.reachesArchive(null)) {
+            return transactions;
+        }
+        return HistoryMerge.merge(transactions, archivedTransactionRepository.findHistoryByUserId(user.getId()),
+                Integer.MAX_VALUE);
     }
     
     /**
      * Get transaction history for current user with date range filter
      */
+    @Timed(OPERATION_TIMER)
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionHistory(LocalDate fromDate, LocalDate toDate) {
-        User user = getCurrentUser();
+        UserPrincipal user = getCurrentUser();
         
         LocalDateTime fromDateTime = fromDate.atStartOfDay();
         LocalDateTime toDateTime = toDate.atTime(LocalTime.MAX);
         
-        List<Transaction> transactions = transactionRepository.findByUserAndDateRange(user, fromDateTime, toDateTime);
+        List<TransactionResponse> transactions =
+                transactionRepository.findHistoryByUserIdAndDateRange(user.getId(), fromDateTime, toDateTime);
+        if (!transactionArchiver.reachesArchive(fromDateTime)) {
+            return transactions;
+        }
+        return HistoryMerge.merge(transactions, archivedTransactionRepository.findHistoryByUserIdAndDateRange(
+                user.getId(), fromDateTime, toDateTime), Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Write the current user's transaction history as CSV, optionally limited to a date range.
+     * Rows are streamed from the database as response rows, so memory use stays
+     * constant however long the history is.
+     * @return number of rows written
+     */
+    @Timed(OPERATION_TIMER)
+    @Transactional(readOnly = true)
+    public long exportTransactionHistory(LocalDate fromDate, LocalDate toDate, Writer writer) throws IOException {
+        UserPrincipal user = getCurrentUser();
+        boolean ranged = fromDate != null && toDate != null;
+        LocalDateTime fromDateTime = ranged ? fromDate.atStartOfDay() : null;
+        
+        try (Stream<TransactionResponse> rows = streamHistory(transactionRepository, user.getId(), fromDate, toDate);
+             Stream<TransactionResponse> archived = transactionArchiver.reachesArchive(fromDateTime)
+                     ? streamHistory(archivedTransactionRepository, user.getId(), fromDate, toDate)
+                     : Stream.empty()) {
+            return csvExportUtil.writeTransactionsCsv(HistoryMerge.merge(rows.iterator(), archived.iterator()), writer);
+        }
+    }
+    
+    private Stream<TransactionResponse> streamHistory(TransactionHistoryQueries table, Long userId,
+                                                      LocalDate fromDate, LocalDate toDate) {
+        return fromDate != null && toDate != null
+                ? table.streamHistoryByUserIdAndDateRange(userId, fromDate.atStartOfDay(), toDate.atTime(LocalTime.MAX))
+                : table.streamHistoryByUserId(userId);
+    }
+    
+    /**
+     * Get one page of the current user's transaction history using keyset pagination.
+     * The archive is read only when the page reaches back past the newest archived row.
+     * @param fromDate optional start of the date range
+     * @param toDate optional end of the date range, used together with fromDate
+     * @param cursor cursor returned with the previous page, or null for the first page
+     * @param limit maximum number of transactions in the page
+     */
+    @Timed(OPERATION_TIMER)
+    @Transactional(readOnly = true)
+    public TransactionPage getTransactionPage(LocalDate fromDate, LocalDate toDate, String cursor, int limit) {
+        UserPrincipal user = getCurrentUser();
+        TransactionCursor position = cursor != null ? TransactionCursor.decode(cursor) : null;
+        
+        // Fetch one extra row to learn whether another page follows
+        int fetchLimit = limit + 1;
+        List<TransactionResponse> transactions =
+                findPage(transactionRepository, user.getId(), fromDate, toDate, position, fetchLimit);
+        
+        // A full page whose oldest row is newer than anything archived cannot gain archived rows
+        LocalDateTime reachedBack = transactions.size() == fetchLimit
+                ? transactions.get(fetchLimit - 1).getTimestamp()
+                : fromDate != null && toDate != null ? fromDate.atStartOfDay() : null;
+        if (transactionArchiver.reachesArchive(reachedBack)) {
+            transactions = HistoryMerge.merge(transactions,
+                    findPage(archivedTransactionRepository, user.getId(), fromDate, toDate, position, fetchLimit),
+                    fetchLimit);
+        }
+        
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions = transactions.subList(0, limit);
+            TransactionResponse last = transactions.get(limit - 1);
+            nextCursor = new TransactionCursor(last.getTimestamp(), last.getId()).encode();
+        }
+        
+        return new TransactionPage(transactions, nextCursor);
+    }
+    
+    private List<TransactionResponse> findPage(TransactionHistoryQueries table, Long userId, LocalDate fromDate,
+                                               LocalDate toDate, TransactionCursor position, int fetchLimit) {
+        if (fromDate != null && toDate != null) {
+            LocalDateTime beforeTimestamp = position != null ? position.getTimestamp() : toDate.atTime(LocalTime.MAX);
+            Long beforeId = position != null ? position.getId() : Long.MAX_VALUE;
+            return table.findPageByUserIdAndDateRange(
+                    userId, fromDate.atStartOfDay(), beforeTimestamp, beforeId, fetchLimit);
+        } else if (position != null) {
+            return table.findPageByUserId(userId, position.getTimestamp(), position.getId(), fetchLimit);
+        } else {
+            return table.findFirstPageByUserId(userId, fetchLimit);
+        }
+    }
+    
+    /**
+     * Get the current user's totals per day or month from the rollup table, reading one
+     * row per period with postings instead of the transactions themselves
+     * @param fromDate first day of the range; a month is included if it overlaps the range
+     * @param toDate last day of the range
+     */
+    @Timed(OPERATION_TIMER)
+    @Transactional(readOnly = true)
+    public List<SummaryResponse> getStatementSummary(LocalDate fromDate, LocalDate toDate, RollupPeriod period) {
+        if (fromDate.isAfter(toDate)) {
+            throw BankingErrors.INVALID_DATE_RANGE;
+        }
+        UserPrincipal user = getCurrentUser();
+        LocalDate firstStart = period == RollupPeriod.MONTH ? fromDate.withDayOfMonth(1) : fromDate;
         
-        return transactions.stream()
-                .map(this::convertToTransactionResponse)
-                .collect(Collectors.toList());
+        return accountRollupRepository.findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStart(
+                        user.getId(), period, firstStart, toDate)
+                .stream()
+                .map(SummaryResponse::new)
+                .toList();
     }
     
     /**
-     * Convert Transaction entity to TransactionResponse DTO
+     * Convert a saved Transaction to TransactionResponse DTO. The usernames are
+     * passed in so that the user references on the transaction are never loaded.
      */
-    private TransactionResponse convertToTransactionResponse(Transaction transaction) {
+    private TransactionResponse toResponse(Transaction transaction, String senderUsername, String receiverUsername) {
         return new TransactionResponse(
                 transaction.getId(),
-                transaction.getSender() != null ? transaction.getSender().getUsername() : null,
-                transaction.getReceiver() != null ? transaction.getReceiver().getUsername() : null,
+                senderUsername,
+                receiverUsername,
                 transaction.getAmount(),
                 transaction.getTimestamp(),
                 transaction.getType(),
@@ -0,0 +1,311 @@
+package com.banking.service;
+
+import com.banking.dto.BatchTransferResponse;
+import com.banking.dto.BatchTransferResult;
+import com.banking.dto.TransactionRequest;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import com.banking.exception.BankingErrors;
+import com.banking.exception.BankingException;
+import com.banking.exception.InvalidRequestException;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.BankingMetrics;
+import com.banking.repository.UserRepository;
+import com.banking.util.TimeOrderedIds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Applies many transfers from the current user in one request. Receivers are resolved
+ * with a single query, and each chunk of transfers runs in one transaction that locks
+ * the rows involved once and writes transactions and balances as JDBC batches.
+ */
+@Service
+public class BatchTransferService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransferService.class);
+    
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String ADD_TO_BALANCE =
+            "UPDATE users SET balance = balance + ?, version = version + 1, updated_at = ? WHERE id = ?";
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ContentionRetry contentionRetry;
+    
+    @Autowired
+    private ContentionStats contentionStats;
+    
+    @Autowired
+    private BankingMetrics bankingMetrics;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    // Present only when app.ledger.engine=sharded
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+    
+    @Value("${app.transfer.batch.max-items:10000}")
+    private int maxItems;
+    
+    @Value("${app.transfer.batch.chunk-size:500}")
+    private int chunkSize;
+    
+    /**
+     * Transfer money from the current user to each target in the list. Items fail
+     * individually; a failed chunk does not undo the chunks committed before it.
+     */
+    public BatchTransferResponse transferBatch(List<TransactionRequest> requests) {
+        if (requests.size() > maxItems) {
+            throw new InvalidRequestException("batch_too_large", "A batch may contain at most " + maxItems + " transfers");
+        }
+        
+        UserPrincipal sender = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        Map<String, Long> receiverIds = resolveReceivers(requests);
+        
+        BatchTransferResult[] results = new BatchTransferResult[requests.size()];
+        List<Integer> accepted = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            BankingException error = validate(sender, requests.get(i), receiverIds);
+            if (error != null) {
+                results[i] = BatchTransferResult.error(i, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        
+        if (ledgerEngine != null) {
+            for (int i : accepted) {
+                results[i] = transferOnEngine(sender, i, requests.get(i), receiverIds);
+            }
+            return new BatchTransferResponse(Arrays.asList(results));
+        }
+        
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            try {
+                for (BatchTransferResult result : contentionRetry.execute(
+                        () -> applyChunk(sender, requests, chunk, receiverIds))) {
+                    results[result.getIndex()] = result;
+                }
+            } catch (RuntimeException e) {
+                for (int i : chunk) {
+                    results[i] = failure(i, e);
+                }
+            }
+        }
+        
+        return new BatchTransferResponse(Arrays.asList(results));
+    }
+    
+    /**
+     * Look up the ids of all distinct target usernames in one query
+     */
+    private Map<String, Long> resolveReceivers(List<TransactionRequest> requests) {
+        Set<String> usernames = new HashSet<>();
+        for (TransactionRequest request : requests) {
+            if (request != null && request.getTargetUsername() != null) {
+                usernames.add(request.getTargetUsername());
+            }
+        }
+        
+        Map<String, Long> ids = new HashMap<>();
+        if (!usernames.isEmpty()) {
+            for (Object[] row : userRepository.findIdsByUsernameIn(usernames)) {
+                ids.put((String) row[0], (Long) row[1]);
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Check the parts of an item that do not depend on balances
+     * @return the error, or null if the item can be applied
+     */
+    private BankingException validate(UserPrincipal sender, TransactionRequest request, Map<String, Long> receiverIds) {
+        if (request == null) {
+            return BankingErrors.TRANSFER_REQUIRED;
+        }
+        if (!TransactionRequest.isValidAmount(request.getAmount())) {
+            return BankingErrors.INVALID_AMOUNT;
+        }
+        if (!TransactionRequest.isValidDescription(request.getDescription())) {
+            return BankingErrors.DESCRIPTION_TOO_LONG;
+        }
+        if (request.getTargetUsername() == null || request.getTargetUsername().trim().isEmpty()) {
+            return BankingErrors.TARGET_REQUIRED;
+        }
+        Long receiverId = receiverIds.get(request.getTargetUsername());
+        if (receiverId == null) {
+            bankingMetrics.recordTargetNotFound();
+            return BankingErrors.TARGET_NOT_FOUND;
+        }
+        if (receiverId.equals(sender.getId())) {
+            return BankingErrors.SELF_TRANSFER;
+        }
+        return null;
+    }
+    
+    private BatchTransferResult transferOnEngine(UserPrincipal sender, int index, TransactionRequest request,
+                                                 Map<String, Long> receiverIds) {
+        try {
+            return BatchTransferResult.success(index, ledgerEngine.transfer(
+                    sender.getId(), sender.getUsername(),
+                    receiverIds.get(request.getTargetUsername()), request.getTargetUsername(),
+                    request.getAmount(), describe(sender, request)));
+        } catch (RuntimeException e) {
+            return failure(index, e);
+        }
+    }
+    
+    /**
+     * Report a failed item the way {@link com.banking.exception.GlobalExceptionHandler}
+     * reports a failed request: banking errors by code, anything else only in the log
+     */
+    private BatchTransferResult failure(int index, RuntimeException e) {
+        if (e instanceof BankingException) {
+            return BatchTransferResult.error(index, (BankingException) e);
+        }
+        logger.error("Batch transfer item {} failed: {}", index, e.getMessage(), e);
+        return BatchTransferResult.error(index, "internal_error", "Internal server error");
+    }
+    
+    /**
+     * Apply one chunk in the current transaction. Items are taken in request order
+     * against the sender's locked balance; those it cannot cover are rejected.
+     */
+    private List<BatchTransferResult> applyChunk(UserPrincipal sender, List<TransactionRequest> requests,
+                                                 List<Integer> chunk, Map<String, Long> receiverIds) {
+        // Ascending id order, the same order single transfers lock in, so the two cannot deadlock
+        Set<Long> accountIds = new TreeSet<>();
+        accountIds.add(sender.getId());
+        for (int i : chunk) {
+            accountIds.add(receiverIds.get(requests.get(i).getTargetUsername()));
+        }
+        BigDecimal balance = lockBalances(accountIds).get(sender.getId());
+        if (balance == null) {
+            throw BankingErrors.USER_NOT_FOUND;
+        }
+        
+        List<BatchTransferResult> results = new ArrayList<>(chunk.size());
+        List<Integer> applied = new ArrayList<>(chunk.size());
+        Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+        BigDecimal debited = BigDecimal.ZERO;
+        
+        for (int i : chunk) {
+            BigDecimal amount = requests.get(i).getAmount();
+            if (balance.compareTo(amount) < 0) {
+                contentionStats.recordRejectedDebit();
+                bankingMetrics.recordInsufficientBalance();
+                results.add(BatchTransferResult.error(i, BankingErrors.INSUFFICIENT_BALANCE));
+                continue;
+            }
+            balance = balance.subtract(amount);
+            debited = debited.add(amount);
+            deltas.merge(receiverIds.get(requests.get(i).getTargetUsername()), amount, BigDecimal::add);
+            applied.add(i);
+        }
+        
+        if (applied.isEmpty()) {
+            return results;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>(applied.size());
+        RollupService.Changes rollups = new RollupService.Changes();
+        
+        for (int i : applied) {
+            TransactionRequest request = requests.get(i);
+            long id = TimeOrderedIds.next();
+            Long receiverId = receiverIds.get(request.getTargetUsername());
+            String description = describe(sender, request);
+            rows.add(new Object[] {
+                    id,
+                    sender.getId(),
+                    receiverId,
+                    request.getAmount(),
+                    timestamp,
+                    TransactionType.TRANSFER.name(),
+                    description
+            });
+            results.add(BatchTransferResult.success(i, new TransactionResponse(
+                    id,
+                    sender.getUsername(),
+                    request.getTargetUsername(),
+                    request.getAmount(),
+                    now,
+                    TransactionType.TRANSFER,
+                    description
+            )));
+            rollups.add(TransactionType.TRANSFER, sender.getId(), receiverId, request.getAmount(), now);
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows, new int[] {
+                Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DECIMAL,
+                Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR
+        });
+        
+        // One update per account: the sender's total debit and each receiver's total credit
+        List<Object[]> updates = new ArrayList<>(deltas.size() + 1);
+        updates.add(new Object[] {debited.negate(), timestamp, sender.getId()});
+        for (Map.Entry<Long, BigDecimal> delta : deltas.entrySet()) {
+            updates.add(new Object[] {delta.getValue(), timestamp, delta.getKey()});
+        }
+        jdbcTemplate.batchUpdate(ADD_TO_BALANCE, updates);
+        rollupService.apply(rollups);
+        
+        List<Long> changed = new ArrayList<>(deltas.keySet());
+        changed.add(sender.getId());
+        userRepository.evictFromCache(changed);
+        
+        return results;
+    }
+    
+    /**
+     * Lock the given users' rows in ascending id order and read their balances
+     */
+    private Map<Long, BigDecimal> lockBalances(Set<Long> accountIds) {
+        String placeholders = accountIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query("SELECT id, balance FROM users WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+                rs -> {
+                    balances.put(rs.getLong(1), rs.getBigDecimal(2));
+                },
+                accountIds.toArray());
+        return balances;
+    }
+    
+    private String describe(UserPrincipal sender, TransactionRequest request) {
+        return request.getDescription() != null ? request.getDescription() :
+                "Transfer from " + sender.getUsername() + " to " + request.getTargetUsername();
+    }
+}
\ No newline at end of file
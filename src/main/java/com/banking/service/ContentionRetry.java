@@ -0,0 +1,123 @@
+package com.banking.service;
+
+import com.banking.exception.BankingErrors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a posting in its own transaction and repeats it a bounded number of times
+ * when the database reports a concurrency failure. Called inside a transaction, the
+ * posting joins it and the retry is left to whoever started that transaction, since a
+ * failed attempt cannot be rolled back on its own.
+ */
+@Component
+public class ContentionRetry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ContentionRetry.class);
+    
+    // MySQL ER_LOCK_DEADLOCK, and H2's deadlock code for the development database
+    private static final Set<Integer> DEADLOCK_CODES = Set.of(1213, 40001);
+    
+    // MySQL ER_LOCK_WAIT_TIMEOUT and ER_LOCK_NOWAIT, and H2's lock timeout
+    private static final Set<Integer> LOCK_WAIT_TIMEOUT_CODES = Set.of(1205, 3572, 50200);
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ContentionStats contentionStats;
+    
+    @Value("${app.posting.retry.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${app.posting.retry.backoff-ms:5}")
+    private long backoffMs;
+    
+    /**
+     * Execute the work in a new transaction, retrying on concurrency failures
+     */
+    public <T> T execute(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                recordFailure(e);
+                
+                if (attempt >= maxAttempts) {
+                    contentionStats.recordRetriesExhausted();
+                    logger.warn("Posting failed after {} attempts: {}", attempt, e.getMessage());
+                    throw BankingErrors.ACCOUNT_BUSY;
+                }
+                
+                contentionStats.recordRetry();
+                backoff(attempt);
+            }
+        }
+    }
+    
+    /**
+     * Count a deadlock or lock wait timeout. The vendor error code decides where there is
+     * one, since Hibernate translates MySQL deadlocks and lock wait timeouts alike.
+     */
+    private void recordFailure(ConcurrencyFailureException e) {
+        int errorCode = vendorErrorCode(e);
+        if (DEADLOCK_CODES.contains(errorCode)) {
+            contentionStats.recordDeadlock();
+        } else if (LOCK_WAIT_TIMEOUT_CODES.contains(errorCode)) {
+            contentionStats.recordLockWaitTimeout();
+        } else if (e instanceof DeadlockLoserDataAccessException) {
+            contentionStats.recordDeadlock();
+        } else if (e instanceof CannotAcquireLockException) {
+            contentionStats.recordLockWaitTimeout();
+        }
+    }
+    
+    /**
+     * Vendor error code of the first SQLException in the cause chain, 0 if there is none.
+     * The SQLState cannot tell the two apart: MySQL reports both a deadlock (1213) and a
+     * lock wait timeout (1205) as 40001.
+     */
+    private int vendorErrorCode(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                return ((SQLException) cause).getErrorCode();
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Jittered exponential backoff so that colliding postings do not retry in lockstep
+     */
+    private void backoff(int attempt) {
+        long ceiling = backoffMs << (attempt - 1);
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw BankingErrors.INTERRUPTED;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.banking.service;
+
+import com.banking.util.LatencyHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how often postings collide with each other
+ */
+@Component
+public class ContentionStats {
+    
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesExhausted = new LongAdder();
+    private final LongAdder deadlocks = new LongAdder();
+    private final LongAdder lockWaitTimeouts = new LongAdder();
+    private final LongAdder localLockWaits = new LongAdder();
+    private final LongAdder rejectedDebits = new LongAdder();
+    private final LatencyHistogram transferLatency = new LatencyHistogram();
+    
+    void recordRetry() {
+        retries.increment();
+    }
+    
+    void recordRetriesExhausted() {
+        retriesExhausted.increment();
+    }
+    
+    void recordDeadlock() {
+        deadlocks.increment();
+    }
+    
+    void recordLockWaitTimeout() {
+        lockWaitTimeouts.increment();
+    }
+    
+    void recordLocalLockWait() {
+        localLockWaits.increment();
+    }
+    
+    void recordTransferLatency(long nanos) {
+        transferLatency.record(nanos);
+    }
+    
+    void recordRejectedDebit() {
+        rejectedDebits.increment();
+    }
+    
+    /**
+     * Attempts that were repeated after a concurrency failure
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+    
+    /**
+     * Postings that still failed after the last allowed attempt
+     */
+    public long getRetriesExhausted() {
+        return retriesExhausted.sum();
+    }
+    
+    /**
+     * Transactions chosen as deadlock victims by the database
+     */
+    public long getDeadlocks() {
+        return deadlocks.sum();
+    }
+    
+    /**
+     * Row lock waits that timed out in the database
+     */
+    public long getLockWaitTimeouts() {
+        return lockWaitTimeouts.sum();
+    }
+    
+    /**
+     * Postings that had to wait for an in-JVM account lock
+     */
+    public long getLocalLockWaits() {
+        return localLockWaits.sum();
+    }
+    
+    /**
+     * End-to-end latency of JPA transfers, including lock waits and retries
+     * @param percentile value between 0 and 1, e.g. 0.99
+     * @return latency in nanoseconds
+     */
+    public long getTransferLatencyPercentile(double percentile) {
+        return transferLatency.percentile(percentile);
+    }
+    
+    /**
+     * Number of JPA transfers with a recorded latency
+     */
+    public long getTransferCount() {
+        return transferLatency.count();
+    }
+    
+    /**
+     * Conditional debits that matched no row because the balance was too low
+     */
+    public long getRejectedDebits() {
+        return rejectedDebits.sum();
+    }
+}
\ No newline at end of file
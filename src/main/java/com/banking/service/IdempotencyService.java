@@ -0,0 +1,354 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionRequest;
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.IdempotencyKey;
+import com.banking.exception.BankingErrors;
+import com.banking.exception.BankingException;
+import com.banking.exception.InvalidRequestException;
+import com.banking.exception.OutcomeUnknownException;
+import com.banking.ledger.LedgerEngine;
+import com.banking.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Makes postings safe to retry with an {@code Idempotency-Key} header. The first request
+ * with a key claims it in the {@code idempotency_keys} table, runs the posting and stores
+ * its response; a retry with the same key gets that response back without posting again.
+ * <p>
+ * Completed and in-flight keys are also held in a bounded in-memory cache, so retries
+ * that reach this node are answered without a database round trip, and a retry that
+ * arrives while the original is still running waits for its result.
+ * <p>
+ * Without the ledger engine the claim, the posting and the stored response commit in
+ * one transaction, so a posting that fails or never commits leaves the key free. The
+ * engine posts outside any database transaction; there a key is released only when the
+ * posting was definitely refused, i.e. it failed with a {@link BankingException} other
+ * than {@link OutcomeUnknownException}. After a timeout once the posting had started, or
+ * the process dying before the response was stored, the key stays claimed without a
+ * response and retries are refused until it expires: the posting may have happened, and
+ * refusing is the side that never pays twice.
+ */
+@Service
+public class IdempotencyService {
+    
+    /**
+     * Header clients send the key in
+     */
+    public static final String HEADER = "Idempotency-Key";
+    
+    private static final int MAX_KEY_LENGTH = 100;
+    
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ContentionRetry contentionRetry;
+    
+    // Present only when app.ledger.engine=sharded
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+    
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+    
+    @Value("${app.idempotency.cache.max-size:100000}")
+    private long cacheMaxSize;
+    
+    // Keyed by user id and key; a pending future marks a posting still running on this node
+    private AsyncCache<String, Completed> completed;
+    
+    @PostConstruct
+    public void init() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofHours(ttlHours))
+                .buildAsync();
+    }
+    
+    /**
+     * Outcome of an idempotent posting
+     */
+    public static class Result {
+        
+        private final TransactionResponse response;
+        private final boolean replayed;
+        
+        Result(TransactionResponse response, boolean replayed) {
+            this.response = response;
+            this.replayed = replayed;
+        }
+        
+        public TransactionResponse getResponse() {
+            return response;
+        }
+        
+        /**
+         * True if the response is the stored one of an earlier request with the same key
+         */
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+    
+    // Fingerprint and response of a completed posting
+    private static final class Completed {
+        
+        private final String fingerprint;
+        private final TransactionResponse response;
+        // Set when the request failed; waiting duplicates rethrow it
+        private final RuntimeException failure;
+        
+        Completed(String fingerprint, TransactionResponse response) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+            this.failure = null;
+        }
+        
+        Completed(RuntimeException failure) {
+            this.fingerprint = null;
+            this.response = null;
+            this.failure = failure;
+        }
+    }
+    
+    /**
+     * Run the posting at most once for the current user and key. Without a key the
+     * posting simply runs.
+     * @param key Idempotency-Key header value, may be null
+     * @param operation name of the posting, part of what a key is bound to
+     * @param request the request body, part of what a key is bound to
+     */
+    public Result execute(String key, String operation, TransactionRequest request,
+                          Supplier<TransactionResponse> posting) {
+        if (key == null) {
+            return new Result(posting.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("invalid_idempotency_key", HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        UserPrincipal user = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        String fingerprint = fingerprint(operation, request);
+        
+        CompletableFuture<Completed> pending = new CompletableFuture<>();
+        String cacheKey = user.getId() + ":" + key;
+        CompletableFuture<Completed> cached = completed.asMap().putIfAbsent(cacheKey, pending);
+        if (cached != null) {
+            return replay(join(cached), fingerprint);
+        }
+        if (ledgerEngine == null) {
+            return executeInTransaction(user.getId(), key, fingerprint, cacheKey, pending, posting);
+        }
+        
+        IdempotencyKey claim;
+        try {
+            claim = claim(user.getId(), key, fingerprint);
+        } catch (RuntimeException e) {
+            release(cacheKey, pending, e);
+            throw e;
+        }
+        if (claim == null) {
+            return replayStored(user.getId(), key, fingerprint, cacheKey, pending);
+        }
+        
+        TransactionResponse response;
+        try {
+            response = posting.get();
+        } catch (RuntimeException e) {
+            if (!isRefusal(e)) {
+                // The posting may have happened: keep the key, and the cached entry answers
+                // retries on this node until it expires
+                logger.warn("Outcome of the posting for idempotency key {} is unknown: {}",
+                        claim.getId(), e.getMessage());
+                pending.complete(new Completed(BankingErrors.IDEMPOTENCY_KEY_OUTCOME_UNKNOWN));
+                throw e;
+            }
+            release(cacheKey, pending, e);
+            // Nothing was posted, release the key for a retry
+            idempotencyKeyRepository.deleteById(claim.getId());
+            throw e;
+        }
+        
+        store(claim, response);
+        pending.complete(new Completed(fingerprint, response));
+        return new Result(response, false);
+    }
+    
+    /**
+     * Claim the key, run the posting and store its response in one transaction. A
+     * duplicate insert waits for the transaction holding the key, so it sees either the
+     * committed response or a key released by a rollback.
+     */
+    private Result executeInTransaction(Long userId, String key, String fingerprint, String cacheKey,
+                                        CompletableFuture<Completed> pending, Supplier<TransactionResponse> posting) {
+        TransactionResponse response;
+        try {
+            response = contentionRetry.execute(() -> {
+                IdempotencyKey claim = claim(userId, key, fingerprint);
+                if (claim == null) {
+                    // Roll back the failed insert before looking up the other request
+                    throw BankingErrors.IDEMPOTENCY_KEY_IN_PROGRESS;
+                }
+                TransactionResponse posted = posting.get();
+                idempotencyKeyRepository.complete(claim.getId(), serialize(posted));
+                return posted;
+            });
+        } catch (RuntimeException e) {
+            if (e == BankingErrors.IDEMPOTENCY_KEY_IN_PROGRESS) {
+                return replayStored(userId, key, fingerprint, cacheKey, pending);
+            }
+            release(cacheKey, pending, e);
+            throw e;
+        }
+        
+        pending.complete(new Completed(fingerprint, response));
+        return new Result(response, false);
+    }
+    
+    /**
+     * Answer with the response stored by an earlier request that holds the key
+     */
+    private Result replayStored(Long userId, String key, String fingerprint, String cacheKey,
+                                CompletableFuture<Completed> pending) {
+        Completed earlier;
+        try {
+            earlier = stored(userId, key);
+        } catch (RuntimeException e) {
+            release(cacheKey, pending, e);
+            throw e;
+        }
+        pending.complete(earlier);
+        return replay(earlier, fingerprint);
+    }
+    
+    /**
+     * Whether a failed posting definitely did not happen
+     */
+    private static boolean isRefusal(RuntimeException e) {
+        return e instanceof BankingException && !(e instanceof OutcomeUnknownException);
+    }
+    
+    /**
+     * Drop the cached entry so the key can be retried. Completed normally rather than
+     * exceptionally, which the cache would log as a failed load on every rejected posting.
+     */
+    private void release(String cacheKey, CompletableFuture<Completed> pending, RuntimeException failure) {
+        completed.asMap().remove(cacheKey, pending);
+        pending.complete(new Completed(failure));
+    }
+    
+    /**
+     * Insert the key, relying on its unique constraint across nodes
+     * @return the claimed row, or null if the key is already taken
+     */
+    private IdempotencyKey claim(Long userId, String key, String fingerprint) {
+        try {
+            return idempotencyKeyRepository.saveAndFlush(new IdempotencyKey(userId, key, fingerprint));
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Store the response of a posting under its claimed key
+     */
+    private void store(IdempotencyKey claim, TransactionResponse response) {
+        try {
+            idempotencyKeyRepository.complete(claim.getId(), serialize(response));
+        } catch (RuntimeException e) {
+            // The posting happened; the cached entry still answers retries on this node
+            logger.error("Could not store response for idempotency key {}: {}", claim.getId(), e.getMessage());
+        }
+    }
+    
+    private String serialize(TransactionResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the response for this " + HEADER, e);
+        }
+    }
+    
+    /**
+     * Load what an earlier request with the key stored
+     */
+    private Completed stored(Long userId, String key) {
+        // Missing means the other request failed and released the key just now
+        IdempotencyKey existing = idempotencyKeyRepository.findByUserIdAndKey(userId, key)
+                .filter(row -> row.getResponse() != null)
+                .orElseThrow(() -> BankingErrors.IDEMPOTENCY_KEY_IN_PROGRESS);
+        try {
+            return new Completed(existing.getFingerprint(),
+                    objectMapper.readValue(existing.getResponse(), TransactionResponse.class));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Stored response for this " + HEADER + " is unreadable");
+        }
+    }
+    
+    private Result replay(Completed outcome, String fingerprint) {
+        if (!outcome.fingerprint.equals(fingerprint)) {
+            throw BankingErrors.IDEMPOTENCY_KEY_REUSED;
+        }
+        return new Result(outcome.response, true);
+    }
+    
+    private Completed join(CompletableFuture<Completed> future) {
+        Completed outcome = future.join();
+        if (outcome.failure != null) {
+            // The original request failed; this one fails the same way
+            throw outcome.failure;
+        }
+        return outcome;
+    }
+    
+    /**
+     * Delete keys that have outlived the retention period
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours));
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+    
+    private String fingerprint(String operation, TransactionRequest request) {
+        String canonical = operation + '\n' +
+                request.getAmount().stripTrailingZeros().toPlainString() + '\n' +
+                (request.getTargetUsername() != null ? request.getTargetUsername() : "") + '\n' +
+                (request.getDescription() != null ? request.getDescription() : "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.banking.service;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and outcome of one bulk ledger export, updated by the export workers
+ */
+public class LedgerExport {
+    
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+    
+    private final long id;
+    private final Path file;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicInteger completedSegments = new AtomicInteger();
+    private final AtomicLong rows = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile int segments;
+    private volatile long bytes;
+    private volatile LocalDateTime completedAt;
+    private volatile String error;
+    
+    LedgerExport(long id, Path file) {
+        this.id = id;
+        this.file = file;
+    }
+    
+    void plan(int segments) {
+        this.segments = segments;
+    }
+    
+    void segmentWritten(long segmentRows) {
+        rows.addAndGet(segmentRows);
+        completedSegments.incrementAndGet();
+    }
+    
+    void complete(long bytes) {
+        this.bytes = bytes;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+    
+    void fail(String error) {
+        this.error = error;
+        this.completedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    /**
+     * The CSV file, complete once the status is {@link Status#COMPLETED}
+     */
+    public Path getFile() {
+        return file;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public int getSegments() {
+        return segments;
+    }
+    
+    public int getCompletedSegments() {
+        return completedSegments.get();
+    }
+    
+    /**
+     * Rows written so far, excluding the header
+     */
+    public long getRows() {
+        return rows.get();
+    }
+    
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public String getError() {
+        return error;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,353 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import com.banking.exception.BankingErrors;
+import com.banking.util.CsvExportUtil;
+import com.banking.util.TimeOrderedIds;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk export of the whole ledger, hot and archived transactions, to one CSV file for
+ * administrators. The id space is split into ranges that are rendered in parallel on a
+ * dedicated fork-join pool, each into a segment file, and the segments are concatenated
+ * in id order with {@link FileChannel#transferTo}. Each range is read through a cursor
+ * of {@code fetch-size} rows, so heap use is bounded by the parallelism times the fetch
+ * size, not by the size of the ledger.
+ * <p>
+ * Both tables of a range are read in one repeatable-read transaction, so a row moved by
+ * the archiver meanwhile is exported exactly once. Rows committed after the export
+ * started may be missing. One export runs at a time; exports are tracked in memory, and
+ * files left behind by an earlier run of the application are removed on startup.
+ */
+@Service
+public class LedgerExportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LedgerExportService.class);
+    
+    private static final String FILE_PREFIX = "ledger-";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    
+    // Archived rows are older, so they come first within a range
+    private static final String[] TABLES = {"transactions_archive", "transactions"};
+    
+    private static final String RANGE_QUERY = "SELECT t.id, s.username, r.username, t.amount, t.timestamp, " +
+            "t.type, t.description FROM %s t LEFT JOIN users s ON s.id = t.sender_id " +
+            "LEFT JOIN users r ON r.id = t.receiver_id WHERE t.id BETWEEN ? AND ? ORDER BY t.id";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private CsvExportUtil csvExportUtil;
+    
+    @Value("${app.export.bulk.directory:${java.io.tmpdir}/ledger-exports}")
+    private String directory;
+    
+    @Value("${app.export.bulk.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${app.export.bulk.segment-rows:250000}")
+    private long segmentRows;
+    
+    @Value("${app.export.bulk.fetch-size:1000}")
+    private int fetchSize;
+    
+    private final Map<Long, LedgerExport> exports = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    private Path exportDirectory;
+    private JdbcTemplate rangeReader;
+    private TransactionTemplate rangeTransaction;
+    private ForkJoinPool pool;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        exportDirectory = Files.createDirectories(Path.of(directory)).toRealPath();
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(exportDirectory, FILE_PREFIX + "*")) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+        
+        rangeReader = new JdbcTemplate(jdbcTemplate.getDataSource());
+        rangeReader.setFetchSize(fetchSize);
+        rangeTransaction = new TransactionTemplate(transactionManager);
+        rangeTransaction.setReadOnly(true);
+        rangeTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        
+        // Workers block on the database, so they get a pool of their own
+        pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("ledger-export-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    
+    /**
+     * Start an export in the background
+     * @return the export, to poll for completion
+     */
+    public LedgerExport start() {
+        if (!running.compareAndSet(false, true)) {
+            throw BankingErrors.EXPORT_IN_PROGRESS;
+        }
+        long id = TimeOrderedIds.next();
+        LedgerExport export = new LedgerExport(id, exportDirectory.resolve(FILE_PREFIX + id + ".csv"));
+        exports.put(id, export);
+        pool.execute(() -> run(export));
+        return export;
+    }
+    
+    public LedgerExport get(long id) {
+        LedgerExport export = exports.get(id);
+        if (export == null) {
+            throw BankingErrors.EXPORT_NOT_FOUND;
+        }
+        return export;
+    }
+    
+    /**
+     * Exports of this node, newest first
+     */
+    public List<LedgerExport> list() {
+        return exports.values().stream()
+                .sorted(Comparator.comparingLong(LedgerExport::getId).reversed())
+                .toList();
+    }
+    
+    /**
+     * The file of a completed export
+     */
+    public Path getFile(long id) {
+        LedgerExport export = get(id);
+        if (export.getStatus() != LedgerExport.Status.COMPLETED) {
+            throw BankingErrors.EXPORT_NOT_READY;
+        }
+        return export.getFile();
+    }
+    
+    /**
+     * Forget a finished export and delete its file
+     */
+    public void delete(long id) throws IOException {
+        LedgerExport export = get(id);
+        if (export.getStatus() == LedgerExport.Status.RUNNING) {
+            throw BankingErrors.EXPORT_NOT_READY;
+        }
+        exports.remove(id);
+        Files.deleteIfExists(export.getFile());
+    }
+    
+    private void run(LedgerExport export) {
+        long start = System.currentTimeMillis();
+        List<Segment> segments = List.of();
+        try {
+            segments = plan(export);
+            export.plan(segments.size());
+            ForkJoinTask.invokeAll(segments);
+            long bytes = concatenate(export.getFile(), segments);
+            export.complete(bytes);
+            logger.info("Ledger export {} wrote {} rows in {} segments, {} bytes, in {} ms", export.getId(),
+                    export.getRows(), segments.size(), bytes, System.currentTimeMillis() - start);
+        } catch (RuntimeException | IOException e) {
+            export.fail(e.getMessage());
+            logger.error("Ledger export {} failed", export.getId(), e);
+            for (Segment segment : segments) {
+                deleteQuietly(segment.file);
+            }
+            deleteQuietly(export.getFile());
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Split the ids of both tables into ranges of about {@code segment-rows} rows, and at
+     * least a few ranges per worker for work stealing to balance out uneven ranges. Split
+     * points are ids found in the tables rather than equal slices of the id space, which
+     * legacy sequential ids and time-ordered ids occupy very unevenly.
+     */
+    private List<Segment> plan(LedgerExport export) {
+        long[] bounds = {0, Long.MAX_VALUE, Long.MIN_VALUE};
+        Long[] tableMinIds = new Long[TABLES.length];
+        for (int i = 0; i < TABLES.length; i++) {
+            int table = i;
+            jdbcTemplate.query("SELECT COUNT(*), MIN(id), MAX(id) FROM " + TABLES[i], rs -> {
+                long count = rs.getLong(1);
+                if (count > 0) {
+                    tableMinIds[table] = rs.getLong(2);
+                    bounds[0] += count;
+                    bounds[1] = Math.min(bounds[1], rs.getLong(2));
+                    bounds[2] = Math.max(bounds[2], rs.getLong(3));
+                }
+            });
+        }
+        long rows = bounds[0];
+        if (rows == 0) {
+            return List.of();
+        }
+        
+        long ranges = Math.min(rows, Math.max(parallelism * 4L, (rows + segmentRows - 1) / segmentRows));
+        long step = (rows + ranges - 1) / ranges;
+        
+        // Every step-th id of each table, each found by skipping step index entries from the last
+        TreeSet<Long> splits = new TreeSet<>();
+        for (int i = 0; i < TABLES.length; i++) {
+            String nextSplit = "SELECT id FROM " + TABLES[i] + " WHERE id >= ? ORDER BY id LIMIT 1 OFFSET ?";
+            Long split = tableMinIds[i];
+            while (split != null) {
+                List<Long> found = jdbcTemplate.queryForList(nextSplit, Long.class, split, step);
+                split = found.isEmpty() ? null : found.get(0);
+                if (split != null) {
+                    splits.add(split);
+                }
+            }
+        }
+        
+        // Each range holds at most step rows of each table
+        List<Segment> segments = new ArrayList<>();
+        long fromId = bounds[1];
+        for (long split : splits) {
+            if (split > fromId) {
+                segments.add(segment(export, fromId, split - 1, segments.size()));
+                fromId = split;
+            }
+        }
+        segments.add(segment(export, fromId, bounds[2], segments.size()));
+        return segments;
+    }
+    
+    private Segment segment(LedgerExport export, long fromId, long toId, int index) {
+        Path file = exportDirectory.resolve(FILE_PREFIX + export.getId() + ".segment-" + index);
+        return new Segment(export, fromId, toId, file);
+    }
+    
+    private long concatenate(Path target, List<Segment> segments) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.wrap(csvExportUtil.getHeader().getBytes(StandardCharsets.UTF_8));
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            for (Segment segment : segments) {
+                try (FileChannel in = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+                Files.delete(segment.file);
+            }
+            return out.size();
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * One id range, rendered to its own file
+     */
+    private final class Segment extends RecursiveAction {
+        
+        private final LedgerExport export;
+        private final long fromId;
+        private final long toId;
+        private final Path file;
+        
+        private Segment(LedgerExport export, long fromId, long toId, Path file) {
+            this.export = export;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.file = file;
+        }
+        
+        @Override
+        protected void compute() {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file),
+                    StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+                long rows = rangeTransaction.execute(status -> {
+                    long written = 0;
+                    for (String table : TABLES) {
+                        written += writeRange(table, writer);
+                    }
+                    return written;
+                });
+                export.segmentWritten(rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        private long writeRange(String table, Writer writer) {
+            StringBuilder row = new StringBuilder(256);
+            long[] rows = new long[1];
+            rangeReader.query(String.format(RANGE_QUERY, table), rs -> {
+                row.setLength(0);
+                csvExportUtil.appendRow(row, new TransactionResponse(
+                        rs.getLong(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getBigDecimal(4),
+                        rs.getTimestamp(5).toLocalDateTime(),
+                        TransactionType.valueOf(rs.getString(6)),
+                        rs.getString(7)));
+                try {
+                    writer.append(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, fromId, toId);
+            return rows[0];
+        }
+    }
+}
\ No newline at end of file
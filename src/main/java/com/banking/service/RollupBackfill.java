@@ -0,0 +1,128 @@
+package com.banking.service;
+
+import com.banking.entity.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds {@code account_rollups} from the transactions table and its archive, for
+ * history written before rollups existed or by other means. Users are walked in id
+ * order, a chunk at a time; each chunk is rebuilt in one transaction, so the job can be
+ * stopped and run again at any point. Enabled with {@code app.rollup.backfill.enabled=true},
+ * it runs once in the background after startup while postings continue.
+ */
+@Component
+public class RollupBackfill {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RollupBackfill.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ContentionRetry contentionRetry;
+    
+    @Autowired
+    private RollupService rollupService;
+    
+    @Value("${app.rollup.backfill.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.rollup.backfill.chunk-size:100}")
+    private int chunkSize;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException e) {
+                logger.error("Rollup backfill stopped, run it again to finish: {}", e.getMessage());
+            }
+        }, "rollup-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Rebuild the rollups of every user
+     * @return number of users processed
+     */
+    public long backfill() {
+        long start = System.nanoTime();
+        long users = 0;
+        long lastId = Long.MIN_VALUE;
+        
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?",
+                    Long.class, lastId, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            contentionRetry.execute(() -> {
+                rebuild(ids);
+                return null;
+            });
+            users += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            logger.debug("Rebuilt rollups of {} users", users);
+        }
+        
+        logger.info("Rollup backfill rebuilt {} users in {} ms", users,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return users;
+    }
+    
+    /**
+     * Replace the rollups of the given users with totals computed from their transactions,
+     * in the caller's transaction
+     */
+    public void rebuild(List<Long> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+        
+        // Postings to these users wait on the row locks until the commit. The totals are read
+        // after the locks are held, so they include every posting committed before, and
+        // postings after add their own deltas on top.
+        jdbcTemplate.query("SELECT id FROM users WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+                rs -> {
+                }, args);
+        jdbcTemplate.update("DELETE FROM account_rollups WHERE user_id IN (" + placeholders + ")", args);
+        
+        RollupService.Changes changes = new RollupService.Changes();
+        for (String table : new String[] {"transactions", "transactions_archive"}) {
+            collect(changes, table, "sender_id", false, placeholders, args);
+            collect(changes, table, "receiver_id", true, placeholders, args);
+        }
+        rollupService.apply(changes);
+    }
+    
+    /**
+     * Add the daily totals of one side of the users' transactions in one table
+     * @param table transactions or transactions_archive
+     * @param column sender_id or receiver_id
+     */
+    private void collect(RollupService.Changes changes, String table, String column, boolean incoming,
+                         String placeholders, Object[] args) {
+        jdbcTemplate.query("SELECT " + column + ", CAST(timestamp AS DATE), type, SUM(amount), COUNT(*) " +
+                        "FROM " + table + " WHERE " + column + " IN (" + placeholders + ") " +
+                        "GROUP BY " + column + ", CAST(timestamp AS DATE), type",
+                rs -> {
+                    changes.addLeg(rs.getLong(1), rs.getDate(2).toLocalDate(),
+                            TransactionType.valueOf(rs.getString(3)), incoming, rs.getBigDecimal(4), rs.getLong(5));
+                }, args);
+    }
+}
\ No newline at end of file
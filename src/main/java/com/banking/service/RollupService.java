@@ -0,0 +1,213 @@
+package com.banking.service;
+
+import com.banking.entity.RollupPeriod;
+import com.banking.entity.TransactionType;
+import com.banking.util.TimeOrderedIds;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the per-user day and month totals in {@code account_rollups}. Every code
+ * path that inserts transaction rows adds the matching deltas in the same database
+ * transaction, so rollups commit or roll back together with the postings they count.
+ * Deltas are upserts in plain SQL: a native query through the entity manager would
+ * empty the second-level cache on every posting.
+ */
+@Service
+public class RollupService {
+    
+    private static final String INSERT_ROLLUP =
+            "INSERT INTO account_rollups (id, user_id, period, period_start, credits, debits, " +
+            "transfers_in, transfers_out, transaction_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ";
+    
+    // MySQL 8.0.19 and later; VALUES() in the update clause is deprecated since 8.0.20
+    private static final String UPSERT_WITH_ROW_ALIAS = INSERT_ROLLUP +
+            "AS new ON DUPLICATE KEY UPDATE credits = credits + new.credits, debits = debits + new.debits, " +
+            "transfers_in = transfers_in + new.transfers_in, transfers_out = transfers_out + new.transfers_out, " +
+            "transaction_count = transaction_count + new.transaction_count";
+    
+    // Older MySQL, MariaDB and H2's MySQL mode, which do not parse the row alias
+    private static final String UPSERT_WITH_VALUES = INSERT_ROLLUP +
+            "ON DUPLICATE KEY UPDATE credits = credits + VALUES(credits), debits = debits + VALUES(debits), " +
+            "transfers_in = transfers_in + VALUES(transfers_in), transfers_out = transfers_out + VALUES(transfers_out), " +
+            "transaction_count = transaction_count + VALUES(transaction_count)";
+    
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)");
+    
+    private static final int[] UPSERT_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.DATE, Types.DECIMAL, Types.DECIMAL,
+            Types.DECIMAL, Types.DECIMAL, Types.BIGINT
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private String upsertRollup;
+    
+    @PostConstruct
+    public void init() {
+        upsertRollup = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return supportsRowAlias(metaData.getDatabaseProductName(), metaData.getDatabaseProductVersion())
+                    ? UPSERT_WITH_ROW_ALIAS : UPSERT_WITH_VALUES;
+        });
+    }
+    
+    /**
+     * Whether the database accepts a row alias in {@code INSERT ... ON DUPLICATE KEY UPDATE}
+     */
+    static boolean supportsRowAlias(String productName, String productVersion) {
+        Matcher version = VERSION.matcher(productVersion);
+        if (!"MySQL".equals(productName) || !version.lookingAt()) {
+            return false;
+        }
+        int major = Integer.parseInt(version.group(1));
+        int minor = Integer.parseInt(version.group(2));
+        int patch = Integer.parseInt(version.group(3));
+        return major > 8 || major == 8 && (minor > 0 || patch >= 19);
+    }
+    
+    /**
+     * Add one transaction to the rollups of its sender and receiver
+     * @param senderId null for a credit
+     * @param receiverId null for a debit
+     */
+    public void record(TransactionType type, Long senderId, Long receiverId, BigDecimal amount,
+                       LocalDateTime timestamp) {
+        Changes changes = new Changes();
+        changes.add(type, senderId, receiverId, amount, timestamp);
+        apply(changes);
+    }
+    
+    /**
+     * Write accumulated deltas in the current transaction, one upsert per row. Rows
+     * are written in (user, period, start) order so that concurrent writers touching
+     * the same rows lock them in the same order.
+     */
+    public void apply(Changes changes) {
+        if (changes.totals.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(changes.totals.size());
+        for (Map.Entry<Key, Totals> entry : changes.totals.entrySet()) {
+            Key key = entry.getKey();
+            Totals totals = entry.getValue();
+            rows.add(new Object[] {
+                    TimeOrderedIds.next(),
+                    key.userId,
+                    key.period.name(),
+                    Date.valueOf(key.periodStart),
+                    totals.credits,
+                    totals.debits,
+                    totals.transfersIn,
+                    totals.transfersOut,
+                    totals.count
+            });
+        }
+        jdbcTemplate.batchUpdate(upsertRollup, rows, UPSERT_TYPES);
+    }
+    
+    /**
+     * Rollup deltas collected from many transactions, merged per row before they are written
+     */
+    public static class Changes {
+        
+        private final Map<Key, Totals> totals = new TreeMap<>();
+        
+        /**
+         * Count one transaction for its sender and its receiver
+         */
+        public void add(TransactionType type, Long senderId, Long receiverId, BigDecimal amount,
+                        LocalDateTime timestamp) {
+            LocalDate day = timestamp.toLocalDate();
+            if (senderId != null) {
+                addLeg(senderId, day, type, false, amount, 1);
+            }
+            if (receiverId != null) {
+                addLeg(receiverId, day, type, true, amount, 1);
+            }
+        }
+        
+        /**
+         * Count one side of one or more transactions of a type on the same day
+         * @param incoming whether the user is the receiver
+         * @param amount total amount of the transactions
+         * @param count number of transactions
+         */
+        public void addLeg(long userId, LocalDate day, TransactionType type, boolean incoming,
+                           BigDecimal amount, long count) {
+            totals(new Key(userId, RollupPeriod.DAY, day)).add(type, incoming, amount, count);
+            totals(new Key(userId, RollupPeriod.MONTH, day.withDayOfMonth(1))).add(type, incoming, amount, count);
+        }
+        
+        public boolean isEmpty() {
+            return totals.isEmpty();
+        }
+        
+        private Totals totals(Key key) {
+            return totals.computeIfAbsent(key, k -> new Totals());
+        }
+    }
+    
+    private static final class Key implements Comparable<Key> {
+        
+        private final long userId;
+        private final RollupPeriod period;
+        private final LocalDate periodStart;
+        
+        private Key(long userId, RollupPeriod period, LocalDate periodStart) {
+            this.userId = userId;
+            this.period = period;
+            this.periodStart = periodStart;
+        }
+        
+        @Override
+        public int compareTo(Key other) {
+            int byUser = Long.compare(userId, other.userId);
+            if (byUser != 0) {
+                return byUser;
+            }
+            // Compared by name, the order of the unique index on the period column
+            int byPeriod = period.name().compareTo(other.period.name());
+            return byPeriod != 0 ? byPeriod : periodStart.compareTo(other.periodStart);
+        }
+    }
+    
+    private static final class Totals {
+        
+        private BigDecimal credits = BigDecimal.ZERO;
+        private BigDecimal debits = BigDecimal.ZERO;
+        private BigDecimal transfersIn = BigDecimal.ZERO;
+        private BigDecimal transfersOut = BigDecimal.ZERO;
+        private long count;
+        
+        private void add(TransactionType type, boolean incoming, BigDecimal amount, long transactions) {
+            if (type == TransactionType.CREDIT) {
+                credits = credits.add(amount);
+            } else if (type == TransactionType.DEBIT) {
+                debits = debits.add(amount);
+            } else if (incoming) {
+                transfersIn = transfersIn.add(amount);
+            } else {
+                transfersOut = transfersOut.add(amount);
+            }
+            count += transactions;
+        }
+    }
+}
\ No newline at end of file
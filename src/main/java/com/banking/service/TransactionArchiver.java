@@ -0,0 +1,148 @@
+package com.banking.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves transactions older than {@code app.archive.horizon-days} from {@code transactions}
+ * to {@code transactions_archive}, so that the hot table and its indexes stay the size of
+ * the horizon. Rows are moved oldest first in chunks, each copied and deleted in one
+ * transaction, so a run can stop anywhere and the next one continues from there.
+ * <p>
+ * History reads ask {@link #reachesArchive} whether a range can contain archived rows
+ * and skip the archive when it cannot.
+ */
+@Service
+@DependsOn("entityManagerFactory") // The archive table must exist before its boundary is read
+public class TransactionArchiver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+    
+    private static final String COLUMNS = "id, sender_id, receiver_id, amount, timestamp, type, description";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.archive.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.archive.horizon-days:90}")
+    private int horizonDays;
+    
+    @Value("${app.archive.chunk-size:1000}")
+    private int chunkSize;
+    
+    // Newest timestamp known to be in the archive, null while it is empty
+    private volatile LocalDateTime latestArchived;
+    
+    private final AtomicLong archivedRows = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(timestamp) FROM transactions_archive", Timestamp.class);
+        latestArchived = latest != null ? latest.toLocalDateTime() : null;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.archive.interval-ms:3600000}",
+            initialDelayString = "${app.archive.initial-delay-ms:60000}")
+    public void archiveExpired() {
+        if (enabled) {
+            archiveOlderThan(LocalDateTime.now().minusDays(horizonDays));
+        }
+    }
+    
+    /**
+     * Move every transaction with a timestamp before the cutoff
+     * @return number of rows moved
+     */
+    public long archiveOlderThan(LocalDateTime cutoff) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        long moved = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> moveChunk(cutoff));
+            moved += chunk;
+        } while (chunk == chunkSize);
+        
+        if (moved > 0) {
+            logger.info("Archived {} transactions older than {} in {} ms", moved, cutoff,
+                    System.currentTimeMillis() - start);
+        }
+        return moved;
+    }
+    
+    private int moveChunk(LocalDateTime cutoff) {
+        List<Long> ids = new ArrayList<>(chunkSize);
+        List<Timestamp> timestamps = new ArrayList<>(chunkSize);
+        jdbcTemplate.query("SELECT id, timestamp FROM transactions WHERE timestamp < ? " +
+                        "ORDER BY timestamp, id LIMIT ? FOR UPDATE",
+                rs -> {
+                    ids.add(rs.getLong(1));
+                    timestamps.add(rs.getTimestamp(2));
+                },
+                Timestamp.valueOf(cutoff), chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+        jdbcTemplate.update("INSERT INTO transactions_archive (" + COLUMNS + ") SELECT " + COLUMNS +
+                " FROM transactions WHERE id IN (" + placeholders + ")", args);
+        jdbcTemplate.update("DELETE FROM transactions WHERE id IN (" + placeholders + ")", args);
+        
+        // Readers may consult the archive a little early, never too late
+        advanceLatestArchived(timestamps.get(timestamps.size() - 1).toLocalDateTime());
+        archivedRows.addAndGet(ids.size());
+        return ids.size();
+    }
+    
+    private synchronized void advanceLatestArchived(LocalDateTime timestamp) {
+        if (latestArchived == null || timestamp.isAfter(latestArchived)) {
+            latestArchived = timestamp;
+        }
+    }
+    
+    /**
+     * Whether history from the given time onwards may include archived rows. Besides
+     * what this node moved, rows up to the horizon may have been moved by another node.
+     * @param from start of the range, or null for the whole history
+     */
+    public boolean reachesArchive(LocalDateTime from) {
+        LocalDateTime boundary = latestArchived;
+        if (enabled) {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(horizonDays);
+            if (boundary == null || cutoff.isAfter(boundary)) {
+                boundary = cutoff;
+            }
+        }
+        return boundary != null && (from == null || !from.isAfter(boundary));
+    }
+    
+    /**
+     * Rows moved by this node since startup
+     */
+    public long getArchivedRows() {
+        return archivedRows.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,572 @@
+package com.banking.service;
+
+import com.banking.entity.ImportStatus;
+import com.banking.entity.TransactionImport;
+import com.banking.entity.TransactionType;
+import com.banking.exception.BankingErrors;
+import com.banking.ledger.LedgerEngine;
+import com.banking.metrics.BankingMetrics;
+import com.banking.repository.TransactionImportRepository;
+import com.banking.repository.UserRepository;
+import com.banking.util.CsvExportUtil;
+import com.banking.util.TimeOrderedIds;
+import com.banking.util.TransactionCsvReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk import of historical transactions from a CSV file in the layout written by
+ * {@link CsvExportUtil}, for migrations that would otherwise replay every posting
+ * through the API. The uploaded file is split at line ends into chunks of
+ * {@code chunk-size-bytes}, which workers memory-map and parse in parallel. Usernames
+ * are resolved in batches through a bounded cache, rows are written with JDBC batch
+ * inserts and get new ids; the CSV's own ids are ignored.
+ * <p>
+ * Each chunk is written in one transaction together with its net balance change per
+ * user and its checkpoint row, so a failed or interrupted import resumes with the
+ * chunks that are missing, and a chunk is never imported twice. Chunks only insert,
+ * so they never wait on each other. Once every chunk is in, the affected users'
+ * balances are adjusted and their rollups rebuilt, a batch of users per transaction.
+ * Imports are not available with the sharded ledger engine, which owns the balances.
+ */
+@Service
+public class TransactionImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionImportService.class);
+    
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final int[] INSERT_TYPES = {
+            Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DECIMAL, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR
+    };
+    
+    private static final String INSERT_DELTA =
+            "INSERT INTO transaction_import_deltas (id, import_id, user_id, amount) VALUES (?, ?, ?, ?)";
+    
+    private static final String INSERT_CHUNK =
+            "INSERT INTO transaction_import_chunks (id, import_id, start_offset, row_count) VALUES (?, ?, ?, ?)";
+    
+    private static final String ADD_TO_BALANCE =
+            "UPDATE users SET balance = balance + ?, version = version + 1, updated_at = ? WHERE id = ?";
+    
+    // Written by the exporter for a missing sender or receiver
+    private static final String NO_PARTY = "N/A";
+    
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+    
+    @Autowired
+    private TransactionImportRepository transactionImportRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ContentionRetry contentionRetry;
+    
+    @Autowired
+    private RollupBackfill rollupBackfill;
+    
+    @Autowired
+    private CsvExportUtil csvExportUtil;
+    
+    @Autowired
+    private BankingMetrics bankingMetrics;
+    
+    // Present only when app.ledger.engine=sharded
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+    
+    @Value("${app.import.directory:${java.io.tmpdir}/transaction-imports}")
+    private String directory;
+    
+    @Value("${app.import.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${app.import.chunk-size-bytes:4194304}")
+    private int chunkSizeBytes;
+    
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${app.import.username-cache-size:100000}")
+    private int usernameCacheSize;
+    
+    @Value("${app.import.balance-chunk-size:500}")
+    private int balanceChunkSize;
+    
+    // Imports running on this node
+    private final Map<Long, Progress> running = new ConcurrentHashMap<>();
+    
+    private Path importDirectory;
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        importDirectory = Files.createDirectories(Path.of(directory));
+        // Imports run one after another, each spread over all workers
+        coordinator = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "transaction-import"));
+        AtomicInteger workerCount = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, runnable ->
+                new Thread(runnable, "transaction-import-" + workerCount.getAndIncrement()));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+    
+    /**
+     * Store an uploaded file and start importing it in the background
+     * @param body CSV content, starting with the export header
+     */
+    public TransactionImport start(InputStream body) throws IOException {
+        if (ledgerEngine != null) {
+            throw BankingErrors.IMPORT_UNAVAILABLE;
+        }
+        Path file = Files.createTempFile(importDirectory, "import-", ".csv");
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+            if (!hasHeader(file)) {
+                throw BankingErrors.INVALID_IMPORT_FILE;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        
+        TransactionImport transactionImport = transactionImportRepository.save(
+                new TransactionImport(file.getFileName().toString(), Files.size(file), chunkSizeBytes));
+        launch(transactionImport.getId());
+        return transactionImport;
+    }
+    
+    /**
+     * Continue a failed or interrupted import with the chunks that are missing
+     */
+    public TransactionImport resume(long id) {
+        if (ledgerEngine != null) {
+            throw BankingErrors.IMPORT_UNAVAILABLE;
+        }
+        TransactionImport transactionImport = get(id);
+        if (transactionImport.getStatus() == ImportStatus.COMPLETED) {
+            throw BankingErrors.IMPORT_COMPLETED;
+        }
+        if (running.containsKey(id)) {
+            throw BankingErrors.IMPORT_IN_PROGRESS;
+        }
+        transactionImport.setStatus(ImportStatus.RUNNING);
+        transactionImport.setError(null);
+        transactionImport = transactionImportRepository.save(transactionImport);
+        launch(id);
+        return transactionImport;
+    }
+    
+    public TransactionImport get(long id) {
+        return transactionImportRepository.findById(id).orElseThrow(() -> BankingErrors.IMPORT_NOT_FOUND);
+    }
+    
+    /**
+     * Chunks imported so far and the rows in them
+     * @return {@code [chunks, rows]}
+     */
+    public long[] getImported(long id) {
+        long[] imported = new long[2];
+        jdbcTemplate.query("SELECT COUNT(*), COALESCE(SUM(row_count), 0) FROM transaction_import_chunks " +
+                        "WHERE import_id = ?",
+                rs -> {
+                    imported[0] = rs.getLong(1);
+                    imported[1] = rs.getLong(2);
+                },
+                id);
+        return imported;
+    }
+    
+    /**
+     * Rows per second of the run in progress on this node, or null when none is
+     */
+    public Long getCurrentRate(long id) {
+        Progress progress = running.get(id);
+        return progress != null ? progress.rowsPerSecond() : null;
+    }
+    
+    private boolean hasHeader(Path file) throws IOException {
+        byte[] header = csvExportUtil.getHeader().getBytes(StandardCharsets.UTF_8);
+        try (InputStream in = Files.newInputStream(file)) {
+            return Arrays.equals(in.readNBytes(header.length), header);
+        }
+    }
+    
+    private void launch(long id) {
+        Progress progress = new Progress();
+        if (running.putIfAbsent(id, progress) != null) {
+            throw BankingErrors.IMPORT_IN_PROGRESS;
+        }
+        coordinator.execute(() -> {
+            try {
+                run(id, progress);
+            } finally {
+                running.remove(id);
+            }
+        });
+    }
+    
+    private void run(long id, Progress progress) {
+        TransactionImport transactionImport = get(id);
+        Path file = importDirectory.resolve(transactionImport.getFileName());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel, transactionImport.getChunkSize());
+            transactionImport.setChunkCount(chunks.size());
+            transactionImport = transactionImportRepository.save(transactionImport);
+            
+            Set<Long> imported = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT start_offset FROM transaction_import_chunks WHERE import_id = ?", Long.class, id));
+            Cache<String, Long> userIds = Caffeine.newBuilder().maximumSize(usernameCacheSize).build();
+            List<Future<?>> pending = new ArrayList<>();
+            for (long[] chunk : chunks) {
+                if (!imported.contains(chunk[0])) {
+                    pending.add(workers.submit(() -> importChunk(id, channel, chunk[0], chunk[1], userIds, progress)));
+                }
+            }
+            awaitAll(pending);
+            
+            applyBalances(id);
+            
+            transactionImport.setStatus(ImportStatus.COMPLETED);
+            transactionImport.setRowsPerSecond(progress.rowsPerSecond());
+            transactionImport.setCompletedAt(LocalDateTime.now());
+            transactionImportRepository.save(transactionImport);
+            Files.deleteIfExists(file);
+            logger.info("Import {} wrote {} rows in {} chunks at {} rows/s", id, progress.rows.get(),
+                    pending.size(), progress.rowsPerSecond());
+        } catch (Exception e) {
+            String error = e instanceof ExecutionException && e.getCause() != null
+                    ? e.getCause().getMessage() : e.getMessage();
+            logger.error("Import {} stopped after {} rows: {}", id, progress.rows.get(), error);
+            transactionImport.setStatus(ImportStatus.FAILED);
+            transactionImport.setError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+            transactionImportRepository.save(transactionImport);
+        }
+    }
+    
+    /**
+     * Wait for every chunk, including those still running after one failed, so that a
+     * resumed import does not overlap with them
+     * @throws ExecutionException the first failure
+     */
+    private void awaitAll(List<Future<?>> pending) throws ExecutionException, InterruptedException {
+        ExecutionException failure = null;
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    /**
+     * Split the rows after the header into chunks of about the given size that end at a line end
+     * @return {@code [start, end)} byte ranges
+     */
+    private List<long[]> split(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        long start = lineEnd(channel, 0);
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : lineEnd(channel, start + chunkSize - 1);
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+    
+    /**
+     * Offset after the first line break at or after the given offset, or the file size
+     */
+    private long lineEnd(FileChannel channel, long from) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(8192);
+        long position = from;
+        while (true) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+    
+    private void importChunk(long id, FileChannel channel, long start, long end,
+                             Cache<String, Long> userIds, Progress progress) {
+        if (progress.stopped) {
+            return;
+        }
+        int rows;
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            rows = contentionRetry.execute(() -> writeChunk(id, buffer, start, userIds));
+        } catch (DuplicateKeyException e) {
+            // Imported by an overlapping run of the same import
+            return;
+        } catch (IOException e) {
+            progress.stopped = true;
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            // Leave the chunks that have not started for a resumed run
+            progress.stopped = true;
+            throw e;
+        }
+        progress.rows.addAndGet(rows);
+        bankingMetrics.recordImportedRows(rows);
+    }
+    
+    /**
+     * Insert the rows of one chunk with their balance deltas and checkpoint
+     * @return number of rows inserted
+     */
+    private int writeChunk(long id, ByteBuffer buffer, long start, Cache<String, Long> userIds) {
+        TransactionCsvReader reader = new TransactionCsvReader(buffer);
+        List<ParsedRow> batch = new ArrayList<>(batchSize);
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        int rows = 0;
+        
+        while (true) {
+            boolean more;
+            try {
+                more = reader.next();
+                if (more) {
+                    batch.add(parse(reader));
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Row at byte " + (start + reader.getLineStart()) + ": "
+                        + e.getMessage(), e);
+            }
+            if (batch.size() == batchSize || (!more && !batch.isEmpty())) {
+                insert(batch, start, userIds, deltas);
+                rows += batch.size();
+                batch.clear();
+            }
+            if (!more) {
+                break;
+            }
+        }
+        
+        List<Object[]> deltaRows = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, BigDecimal> delta : deltas.entrySet()) {
+            deltaRows.add(new Object[] {TimeOrderedIds.next(), id, delta.getKey(), delta.getValue()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_DELTA, deltaRows);
+        jdbcTemplate.update(INSERT_CHUNK, TimeOrderedIds.next(), id, start, rows);
+        return rows;
+    }
+    
+    private ParsedRow parse(TransactionCsvReader reader) {
+        ParsedRow row = new ParsedRow();
+        row.offset = reader.getLineStart();
+        row.type = TransactionType.valueOf(reader.field(TransactionCsvReader.TYPE));
+        row.sender = party(reader.field(TransactionCsvReader.SENDER));
+        row.receiver = party(reader.field(TransactionCsvReader.RECEIVER));
+        if ((row.sender == null) != (row.type == TransactionType.CREDIT)
+                || (row.receiver == null) != (row.type == TransactionType.DEBIT)) {
+            throw new IllegalArgumentException("Sender and receiver do not match type " + row.type);
+        }
+        if (row.type == TransactionType.TRANSFER && row.sender.equals(row.receiver)) {
+            throw new IllegalArgumentException("Transfer to the sender");
+        }
+        
+        row.amount = new BigDecimal(reader.field(TransactionCsvReader.AMOUNT));
+        if (row.amount.signum() <= 0 || row.amount.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException("Invalid amount " + row.amount);
+        }
+        row.timestamp = TransactionCsvReader.parseTimestamp(reader.field(TransactionCsvReader.DATE));
+        
+        String description = reader.field(TransactionCsvReader.DESCRIPTION);
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+        row.description = description.isEmpty() ? null : description;
+        return row;
+    }
+    
+    private String party(String username) {
+        return username.isEmpty() || NO_PARTY.equals(username) ? null : username;
+    }
+    
+    private void insert(List<ParsedRow> batch, long start, Cache<String, Long> userIds,
+                        Map<Long, BigDecimal> deltas) {
+        resolve(batch, userIds);
+        
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (ParsedRow row : batch) {
+            Long senderId = row.sender != null ? userId(row.sender, row, start, userIds) : null;
+            Long receiverId = row.receiver != null ? userId(row.receiver, row, start, userIds) : null;
+            rows.add(new Object[] {
+                    TimeOrderedIds.next(),
+                    senderId,
+                    receiverId,
+                    row.amount,
+                    Timestamp.valueOf(row.timestamp),
+                    row.type.name(),
+                    row.description
+            });
+            if (senderId != null) {
+                deltas.merge(senderId, row.amount.negate(), BigDecimal::add);
+            }
+            if (receiverId != null) {
+                deltas.merge(receiverId, row.amount, BigDecimal::add);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows, INSERT_TYPES);
+    }
+    
+    /**
+     * Look up the ids of the batch's usernames that are not cached yet, in one query
+     */
+    private void resolve(List<ParsedRow> batch, Cache<String, Long> userIds) {
+        Set<String> missing = new HashSet<>();
+        for (ParsedRow row : batch) {
+            if (row.sender != null && userIds.getIfPresent(row.sender) == null) {
+                missing.add(row.sender);
+            }
+            if (row.receiver != null && userIds.getIfPresent(row.receiver) == null) {
+                missing.add(row.receiver);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Object[] row : userRepository.findIdsByUsernameIn(missing)) {
+                userIds.put((String) row[0], (Long) row[1]);
+            }
+        }
+    }
+    
+    private Long userId(String username, ParsedRow row, long start, Cache<String, Long> userIds) {
+        Long id = userIds.getIfPresent(username);
+        if (id == null) {
+            // Not found by resolve, or already evicted again from a full cache
+            List<Object[]> found = userRepository.findIdsByUsernameIn(List.of(username));
+            if (found.isEmpty()) {
+                throw new IllegalArgumentException("Row at byte " + (start + row.offset) + ": unknown user " + username);
+            }
+            id = (Long) found.get(0)[1];
+            userIds.put(username, id);
+        }
+        return id;
+    }
+    
+    /**
+     * Add the summed deltas to the balances and rebuild the rollups of the same users, a
+     * batch of users per transaction in id order, deleting the deltas applied in the same
+     * transaction
+     */
+    private void applyBalances(long id) {
+        int applied;
+        do {
+            applied = contentionRetry.execute(() -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Long> userIds = new ArrayList<>();
+                List<Object[]> updates = new ArrayList<>();
+                jdbcTemplate.query("SELECT user_id, SUM(amount) FROM transaction_import_deltas WHERE import_id = ? " +
+                                "GROUP BY user_id ORDER BY user_id LIMIT ?",
+                        rs -> {
+                            userIds.add(rs.getLong(1));
+                            updates.add(new Object[] {rs.getBigDecimal(2), now, rs.getLong(1)});
+                        },
+                        id, balanceChunkSize);
+                if (userIds.isEmpty()) {
+                    return 0;
+                }
+                
+                rollupBackfill.rebuild(userIds);
+                jdbcTemplate.batchUpdate(ADD_TO_BALANCE, updates);
+                List<Object> args = new ArrayList<>(userIds.size() + 1);
+                args.add(id);
+                args.addAll(userIds);
+                jdbcTemplate.update("DELETE FROM transaction_import_deltas WHERE import_id = ? AND user_id IN (" +
+                        String.join(", ", Collections.nCopies(userIds.size(), "?")) + ")", args.toArray());
+                userRepository.evictFromCache(userIds);
+                return userIds.size();
+            });
+        } while (applied == balanceChunkSize);
+    }
+    
+    private static final class ParsedRow {
+        
+        private int offset;
+        private TransactionType type;
+        private String sender;
+        private String receiver;
+        private BigDecimal amount;
+        private LocalDateTime timestamp;
+        private String description;
+    }
+    
+    private static final class Progress {
+        
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong rows = new AtomicLong();
+        // Set when a chunk failed
+        private volatile boolean stopped;
+        
+        private long rowsPerSecond() {
+            long elapsed = System.nanoTime() - startNanos;
+            return elapsed > 0 ? rows.get() * 1_000_000_000L / elapsed : 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.banking.service;
+
+import com.banking.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User} that drops the cached principal when a password,
+ * email or any other account field is changed through the entity
+ */
+@Component
+public class UserChangeListener {
+    
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        userPrincipalCache.invalidate(user.getId());
+    }
+}
\ No newline at end of file
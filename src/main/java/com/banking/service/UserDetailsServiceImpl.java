@@ -3,27 +3,60 @@ package com.banking.service;
 import com.banking.entity.User;
 import com.banking.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Set;
 
 /**
- * Implementation of UserDetailsService for Spring Security
+ * Implementation of UserDetailsService for Spring Security, which also stores password
+ * hashes re-encoded after a successful login when the BCrypt strength has changed
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+    
+    // Users granted ROLE_ADMIN in addition to ROLE_USER
+    @Value("${app.security.admin-usernames:}")
+    private Set<String> adminUsernames;
+    
+    /**
+     * Load a user's principal, served from the principal cache when possible.
+     * Not transactional, so a cache hit does not borrow a connection.
+     */
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userPrincipalCache.get(username, this::loadFromDatabase);
+    }
+    
+    /**
+     * Store a re-encoded password hash. Only the password column is written, so postings
+     * running at the same time are not overwritten.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        userRepository.updatePassword(principal.getId(), newPassword, LocalDateTime.now());
+        userPrincipalCache.invalidate(principal.getId());
+        
+        return new UserPrincipal(principal.getId(), principal.getUsername(), principal.getEmail(), newPassword,
+                adminUsernames.contains(principal.getUsername()));
+    }
+    
+    private UserPrincipal loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
         
-        return UserPrincipal.create(user);
+        return UserPrincipal.create(user, adminUsernames.contains(user.getUsername()));
     }
 }
\ No newline at end of file
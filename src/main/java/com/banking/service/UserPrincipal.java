@@ -2,34 +2,56 @@ package com.banking.service;
 
 import com.banking.entity.User;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 
 /**
- * Implementation of UserDetails for Spring Security
+ * Implementation of UserDetails for Spring Security.
+ * Instances are shared through the principal cache, so they are immutable and
+ * deliberately not a CredentialsContainer: the password hash must survive
+ * credential erasure after login.
  */
 public class UserPrincipal implements UserDetails {
     
-    private Long id;
-    private String username;
-    private String email;
-    private String password;
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    private static final List<GrantedAuthority> ADMIN_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+    
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final boolean admin;
     
     public UserPrincipal(Long id, String username, String email, String password) {
+        this(id, username, email, password, false);
+    }
+    
+    public UserPrincipal(Long id, String username, String email, String password, boolean admin) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.password = password;
+        this.admin = admin;
     }
     
     public static UserPrincipal create(User user) {
+        return create(user, false);
+    }
+    
+    /**
+     * @param admin whether the user also gets {@code ROLE_ADMIN}
+     */
+    public static UserPrincipal create(User user, boolean admin) {
         return new UserPrincipal(
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
-                user.getPassword()
+                user.getPassword(),
+                admin
         );
     }
     
@@ -53,7 +75,7 @@ public class UserPrincipal implements UserDetails {
     
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.emptyList();
+        return admin ? ADMIN_AUTHORITIES : AUTHORITIES;
     }
     
     @Override
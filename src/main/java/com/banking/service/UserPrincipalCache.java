@@ -0,0 +1,98 @@
+package com.banking.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of user principals by username, so that authenticating a request
+ * does not cost a database round trip. Entries expire after a fixed time and are
+ * dropped whenever the user row is updated or deleted.
+ * <p>
+ * Entries are futures so that a miss is loaded on the calling thread outside the
+ * cache's internal locks. A load blocked on the database therefore never pins a
+ * virtual thread to its carrier, while concurrent callers still share one load.
+ */
+@Component
+public class UserPrincipalCache {
+    
+    @Value("${app.security.principal-cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${app.security.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    private AsyncCache<String, UserPrincipal> principals;
+    
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .buildAsync();
+    }
+    
+    /**
+     * Get the principal for a username, loading it on a miss
+     */
+    public UserPrincipal get(String username, Function<String, UserPrincipal> loader) {
+        CompletableFuture<UserPrincipal> loading = new CompletableFuture<>();
+        CompletableFuture<UserPrincipal> cached = principals.asMap().putIfAbsent(username, loading);
+        if (cached != null) {
+            try {
+                return cached.join();
+            } catch (CompletionException e) {
+                // Another caller's load failed; that entry has been dropped already
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        
+        try {
+            UserPrincipal principal = loader.apply(username);
+            loading.complete(principal);
+            return principal;
+        } catch (RuntimeException e) {
+            // Failed futures are removed from the cache, so the next call loads again
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Drop the cached principal of a user. When called inside a transaction the entry
+     * is dropped again once it completes, so a principal reloaded before the commit
+     * does not outlive the change.
+     */
+    public void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Drop every cached principal
+     */
+    public void invalidateAll() {
+        principals.synchronous().invalidateAll();
+    }
+    
+    // Match on id rather than key so a renamed user is dropped as well
+    private void evict(Long userId) {
+        principals.synchronous().asMap().values().removeIf(principal -> principal.getId().equals(userId));
+    }
+}
\ No newline at end of file
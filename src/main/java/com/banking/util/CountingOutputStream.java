@@ -0,0 +1,36 @@
+package com.banking.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that counts the bytes passed through to the wrapped stream
+ */
+public class CountingOutputStream extends FilterOutputStream {
+    
+    private long count;
+    
+    public CountingOutputStream(OutputStream out) {
+        super(out);
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count++;
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count += len;
+    }
+    
+    /**
+     * Bytes written so far
+     */
+    public long getCount() {
+        return count;
+    }
+}
\ No newline at end of file
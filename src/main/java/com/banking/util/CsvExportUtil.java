@@ -3,8 +3,10 @@ package com.banking.util;
 import com.banking.dto.TransactionResponse;
 import org.springframework.stereotype.Component;
 
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -13,7 +15,7 @@ import java.util.List;
 @Component
 public class CsvExportUtil {
     
-    private static final String CSV_SEPARATOR = ",";
+    private static final char CSV_SEPARATOR = ',';
     private static final String CSV_HEADER = "Transaction ID,Sender,Receiver,Amount,Date,Type,Description\n";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
@@ -23,56 +25,118 @@ public class CsvExportUtil {
      * @return CSV content as string
      */
     public String exportTransactionsToCsv(List<TransactionResponse> transactions) {
-        StringWriter csvWriter = new StringWriter();
+        StringBuilder csv = new StringBuilder(CSV_HEADER.length() + transactions.size() * 96);
         
         // Write CSV header
-        csvWriter.append(CSV_HEADER);
+        csv.append(CSV_HEADER);
         
         // Write transaction data
         for (TransactionResponse transaction : transactions) {
-            csvWriter.append(String.valueOf(transaction.getId()));
-            csvWriter.append(CSV_SEPARATOR);
-            
-            csvWriter.append(escapeSpecialCharacters(transaction.getSenderUsername() != null ? 
-                    transaction.getSenderUsername() : "N/A"));
-            csvWriter.append(CSV_SEPARATOR);
-            
-            csvWriter.append(escapeSpecialCharacters(transaction.getReceiverUsername() != null ? 
-                    transaction.getReceiverUsername() : "N/A"));
-            csvWriter.append(CSV_SEPARATOR);
-            
-            csvWriter.append(String.valueOf(transaction.getAmount()));
-            csvWriter.append(CSV_SEPARATOR);
-            
-            csvWriter.append(transaction.getTimestamp().format(DATE_FORMATTER));
-            csvWriter.append(CSV_SEPARATOR);
-            
-            csvWriter.append(transaction.getType().toString());
-            csvWriter.append(CSV_SEPARATOR);
-            
-            csvWriter.append(escapeSpecialCharacters(transaction.getDescription() != null ? 
-                    transaction.getDescription() : ""));
-            csvWriter.append("\n");
+            appendRow(csv, transaction);
         }
         
-        return csvWriter.toString();
+        return csv.toString();
     }
     
     /**
-     * Escape special characters in CSV fields
-     * @param data The data to escape
-     * @return Escaped data
+     * Stream transactions as CSV to a writer, reusing one row buffer for every row
+     * so that memory use does not depend on the number of rows
+     * @param transactions transactions to export, consumed once
+     * @param writer destination, expected to be buffered
+     * @return number of rows written, excluding the header
      */
-    private String escapeSpecialCharacters(String data) {
+    public long writeTransactionsCsv(Iterator<TransactionResponse> transactions, Writer writer) throws IOException {
+        StringBuilder row = new StringBuilder(256);
+        long rows = 0;
+        
+        writer.write(CSV_HEADER);
+        while (transactions.hasNext()) {
+            row.setLength(0);
+            appendRow(row, transactions.next());
+            writer.append(row);
+            rows++;
+        }
+        writer.flush();
+        
+        return rows;
+    }
+    
+    /**
+     * The header line, including the trailing newline
+     */
+    public String getHeader() {
+        return CSV_HEADER;
+    }
+    
+    /**
+     * Append one CSV row, including the trailing newline
+     */
+    public void appendRow(StringBuilder csv, TransactionResponse transaction) {
+        csv.append(transaction.getId());
+        csv.append(CSV_SEPARATOR);
+        
+        appendEscaped(csv, transaction.getSenderUsername() != null ?
+                transaction.getSenderUsername() : "N/A");
+        csv.append(CSV_SEPARATOR);
+        
+        appendEscaped(csv, transaction.getReceiverUsername() != null ?
+                transaction.getReceiverUsername() : "N/A");
+        csv.append(CSV_SEPARATOR);
+        
+        csv.append(transaction.getAmount());
+        csv.append(CSV_SEPARATOR);
+        
+        DATE_FORMATTER.formatTo(transaction.getTimestamp(), csv);
+        csv.append(CSV_SEPARATOR);
+        
+        csv.append(transaction.getType().name());
+        csv.append(CSV_SEPARATOR);
+        
+        appendEscaped(csv, transaction.getDescription());
+        csv.append('\n');
+    }
+    
+    /**
+     * Append a field, replacing line breaks with a space and quoting it when it
+     * contains a separator or quote character. Works on chars directly, no regex
+     * and no intermediate strings.
+     */
+    private void appendEscaped(StringBuilder csv, String data) {
         if (data == null) {
-            return "";
+            return;
+        }
+        
+        boolean quote = false;
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c == ',' || c == '"' || c == '\'') {
+                quote = true;
+                break;
+            }
         }
         
-        String escapedData = data.replaceAll("\\R", " ");
-        if (data.contains(",") || data.contains("\"") || data.contains("'")) {
-            data = data.replace("\"", "\"\"");
-            escapedData = "\"" + data + "\"";
+        if (quote) {
+            csv.append('"');
+        }
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c == '\r') {
+                // \r\n counts as a single line break
+                if (i + 1 < data.length() && data.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                csv.append(' ');
+            } else if (c == '\n' || c == '\u000B' || c == '\f' || c == '\u0085'
+                    || c == '\u2028' || c == '\u2029') {
+                csv.append(' ');
+            } else if (c == '"') {
+                csv.append("\"\"");
+            } else {
+                csv.append(c);
+            }
+        }
+        if (quote) {
+            csv.append('"');
         }
-        return escapedData;
     }
 }
\ No newline at end of file
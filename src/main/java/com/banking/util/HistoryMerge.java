@@ -0,0 +1,76 @@
+package com.banking.util;
+
+import com.banking.dto.TransactionResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges history read from the hot and the archived transactions. Both inputs are
+ * ordered newest first by timestamp and id, the order of every history query, and
+ * the result keeps that order. The hot table is read first, so a row moved by the
+ * archiver in between can only be read twice, never missed; the repeat is dropped.
+ */
+public final class HistoryMerge {
+    
+    public static final Comparator<TransactionResponse> NEWEST_FIRST =
+            Comparator.comparing(TransactionResponse::getTimestamp)
+                    .thenComparing(TransactionResponse::getId)
+                    .reversed();
+    
+    private HistoryMerge() {
+    }
+    
+    /**
+     * Merge two ordered lists
+     * @param limit maximum number of rows in the result
+     */
+    public static List<TransactionResponse> merge(List<TransactionResponse> hot, List<TransactionResponse> archived,
+                                                  int limit) {
+        if (archived.isEmpty()) {
+            return hot.size() > limit ? hot.subList(0, limit) : hot;
+        }
+        List<TransactionResponse> merged = new ArrayList<>(Math.min(hot.size() + archived.size(), limit));
+        Iterator<TransactionResponse> rows = merge(hot.iterator(), archived.iterator());
+        while (rows.hasNext() && merged.size() < limit) {
+            merged.add(rows.next());
+        }
+        return merged;
+    }
+    
+    /**
+     * Merge two ordered iterators lazily, holding one row of each
+     */
+    public static Iterator<TransactionResponse> merge(Iterator<TransactionResponse> hot,
+                                                      Iterator<TransactionResponse> archived) {
+        return new Iterator<>() {
+            
+            private TransactionResponse nextHot = hot.hasNext() ? hot.next() : null;
+            private TransactionResponse nextArchived = archived.hasNext() ? archived.next() : null;
+            
+            @Override
+            public boolean hasNext() {
+                return nextHot != null || nextArchived != null;
+            }
+            
+            @Override
+            public TransactionResponse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextHot == null ? 1 : nextArchived == null ? -1 : NEWEST_FIRST.compare(nextHot, nextArchived);
+                TransactionResponse row = order <= 0 ? nextHot : nextArchived;
+                if (order <= 0) {
+                    nextHot = hot.hasNext() ? hot.next() : null;
+                }
+                if (order >= 0) {
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                }
+                return row;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.banking.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets (four per power of two),
+ * good enough to read p50/p99/p999 without keeping individual samples.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    
+    /**
+     * Record one sample in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(nanos, 1)));
+    }
+    
+    /**
+     * Total number of recorded samples
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+    
+    /**
+     * Upper bound in nanoseconds of the bucket holding the given percentile
+     * @param percentile value between 0 and 1, e.g. 0.99
+     * @return latency in nanoseconds, 0 when nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKETS - 1);
+    }
+    
+    private static int bucketOf(long nanos) {
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        // The two bits below the leading one select the sub-bucket
+        int sub = exponent >= 2 ? (int) ((nanos >>> (exponent - 2)) & (SUB_BUCKETS - 1)) : 0;
+        return exponent * SUB_BUCKETS + sub;
+    }
+    
+    private static long upperBoundOf(int bucket) {
+        int exponent = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (exponent < 2) {
+            return 1L << (exponent + 1);
+        }
+        long step = 1L << (exponent - 2);
+        return (1L << exponent) + (sub + 1) * step;
+    }
+}
\ No newline at end of file
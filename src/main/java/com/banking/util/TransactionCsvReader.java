@@ -0,0 +1,166 @@
+package com.banking.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Reads rows in the layout written by {@link CsvExportUtil} from a byte buffer, e.g. a
+ * memory-mapped chunk of a file. The exporter replaces line breaks inside fields, so
+ * every line is one row and a chunk may start at any line end. Bytes of multi-byte
+ * UTF-8 characters are never ASCII, so separators and quotes are found on the raw
+ * bytes and only the field values are decoded.
+ */
+public final class TransactionCsvReader {
+    
+    public static final int ID = 0;
+    public static final int SENDER = 1;
+    public static final int RECEIVER = 2;
+    public static final int AMOUNT = 3;
+    public static final int DATE = 4;
+    public static final int TYPE = 5;
+    public static final int DESCRIPTION = 6;
+    
+    private static final int FIELDS = 7;
+    
+    private final ByteBuffer buffer;
+    private final String[] fields = new String[FIELDS];
+    private byte[] value = new byte[256];
+    private int length;
+    private int position;
+    private int lineStart;
+    
+    public TransactionCsvReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+    }
+    
+    /**
+     * Advance to the next non-empty line
+     * @return false at the end of the buffer
+     * @throws IllegalArgumentException when the line is not a valid row
+     */
+    public boolean next() {
+        int limit = buffer.limit();
+        while (position < limit) {
+            lineStart = position;
+            int end = lineStart;
+            while (end < limit && buffer.get(end) != '\n') {
+                end++;
+            }
+            position = end < limit ? end + 1 : limit;
+            if (end > lineStart && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end > lineStart) {
+                split(lineStart, end);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Value of a field of the current row, unquoted and decoded
+     */
+    public String field(int index) {
+        return fields[index];
+    }
+    
+    /**
+     * Offset of the current row within the buffer
+     */
+    public int getLineStart() {
+        return lineStart;
+    }
+    
+    /**
+     * Parse a timestamp in the exporter's {@code yyyy-MM-dd HH:mm:ss} format without a formatter
+     */
+    public static LocalDateTime parseTimestamp(String text) {
+        if (text.length() != 19 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != ' '
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw new DateTimeParseException("Expected yyyy-MM-dd HH:mm:ss", text, 0);
+        }
+        return LocalDateTime.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10),
+                digits(text, 11, 13), digits(text, 14, 16), digits(text, 17, 19));
+    }
+    
+    private static int digits(String text, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeParseException("Expected yyyy-MM-dd HH:mm:ss", text, i);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+    
+    private void split(int from, int to) {
+        int count = 0;
+        int i = from;
+        while (true) {
+            if (count == FIELDS) {
+                throw new IllegalArgumentException("More than " + FIELDS + " fields");
+            }
+            i = readField(i, to);
+            fields[count++] = new String(value, 0, length, StandardCharsets.UTF_8);
+            if (i == to) {
+                break;
+            }
+            i++; // The separator
+        }
+        if (count != FIELDS) {
+            throw new IllegalArgumentException("Expected " + FIELDS + " fields, found " + count);
+        }
+    }
+    
+    /**
+     * Read one field into the value buffer
+     * @return offset of the separator after the field, or the end of the line
+     */
+    private int readField(int i, int to) {
+        length = 0;
+        if (i < to && buffer.get(i) == '"') {
+            i++;
+            while (true) {
+                if (i == to) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                byte b = buffer.get(i++);
+                if (b == '"') {
+                    if (i < to && buffer.get(i) == '"') {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                append(b);
+            }
+            if (i < to && buffer.get(i) != ',') {
+                throw new IllegalArgumentException("Unexpected character after a quoted field");
+            }
+            return i;
+        }
+        while (i < to) {
+            byte b = buffer.get(i);
+            if (b == ',') {
+                break;
+            }
+            append(b);
+            i++;
+        }
+        return i;
+    }
+    
+    private void append(byte b) {
+        if (length == value.length) {
+            value = Arrays.copyOf(value, length * 2);
+        }
+        value[length++] = b;
+    }
+}
\ No newline at end of file
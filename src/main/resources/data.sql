@@ -2,10 +2,10 @@
 -- Note: Passwords are BCrypt encoded versions of 'password123'
 
 -- Insert sample users
-INSERT IGNORE INTO users (id, username, password, email, balance, created_at, updated_at) VALUES
-(1, 'john_doe', '$2a$10$VEjxXn.6zQp8E8pEZrKexOn6CjvQzBYJTaZI9r.MkOKw9l.GQjX/a', 'john@example.com', 1000.00, NOW(), NOW()),
-(2, 'jane_smith', '$2a$10$VEjxXn.6zQp8E8pEZrKexOn6CjvQzBYJTaZI9r.MkOKw9l.GQjX/a', 'jane@example.com', 1500.00, NOW(), NOW()),
-(3, 'bob_wilson', '$2a$10$VEjxXn.6zQp8E8pEZrKexOn6CjvQzBYJTaZI9r.MkOKw9l.GQjX/a', 'bob@example.com', 750.00, NOW(), NOW());
+INSERT IGNORE INTO users (id, username, password, email, balance, version, created_at, updated_at) VALUES
+(1, 'john_doe', '$2a$10$VEjxXn.6zQp8E8pEZrKexOn6CjvQzBYJTaZI9r.MkOKw9l.GQjX/a', 'john@example.com', 1000.00, 0, NOW(), NOW()),
+(2, 'jane_smith', '$2a$10$VEjxXn.6zQp8E8pEZrKexOn6CjvQzBYJTaZI9r.MkOKw9l.GQjX/a', 'jane@example.com', 1500.00, 0, NOW(), NOW()),
+(3, 'bob_wilson', '$2a$10$VEjxXn.6zQp8E8pEZrKexOn6CjvQzBYJTaZI9r.MkOKw9l.GQjX/a', 'bob@example.com', 750.00, 0, NOW(), NOW());
 
 -- Insert sample transactions
 INSERT IGNORE INTO transactions (id, sender_id, receiver_id, amount, timestamp, type, description) VALUES
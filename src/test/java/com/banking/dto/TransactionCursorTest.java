@@ -0,0 +1,32 @@
+package com.banking.dto;
+
+import com.banking.exception.BankingErrors;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+    
+    @Test
+    void decodesWhatItEncodes() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 3, 1, 12, 0, 5, 123_000_000);
+        String token = new TransactionCursor(timestamp, 361603316219904L).encode();
+        
+        TransactionCursor cursor = TransactionCursor.decode(token);
+        
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(cursor.getTimestamp()).isEqualTo(timestamp);
+        assertThat(cursor.getId()).isEqualTo(361603316219904L);
+    }
+    
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> TransactionCursor.decode("not a cursor")).isSameAs(BankingErrors.INVALID_CURSOR);
+        assertThatThrownBy(() -> TransactionCursor.decode("")).isSameAs(BankingErrors.INVALID_CURSOR);
+        // Valid base64 of text without the expected fields
+        assertThatThrownBy(() -> TransactionCursor.decode("aGVsbG8")).isSameAs(BankingErrors.INVALID_CURSOR);
+    }
+}
\ No newline at end of file
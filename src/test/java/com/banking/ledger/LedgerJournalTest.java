@@ -0,0 +1,193 @@
+package com.banking.ledger;
+
+import com.banking.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LedgerJournalTest {
+    
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_789);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recoversEveryFieldOfUnpersistedLegs() throws Exception {
+        LedgerJournal journal = open(4096, true);
+        List<LedgerPosting> handedOn = new ArrayList<>();
+        LedgerPosting debit = new LedgerPosting(11, TransactionType.TRANSFER, 1L, 2L, new BigDecimal("12.50"),
+                TIMESTAMP, "Rent é", 1, new BigDecimal("87.50"), true);
+        LedgerPosting credit = new LedgerPosting(11, TransactionType.TRANSFER, 1L, 2L, new BigDecimal("12.50"),
+                TIMESTAMP, null, 2, new BigDecimal("-0.01"), false);
+        journal.append(debit, handedOn::add);
+        long sequence = journal.append(credit, handedOn::add);
+        assertThat(journal.awaitDurable(sequence, 5000)).isTrue();
+        journal.close();
+        
+        assertThat(handedOn).containsExactly(debit, credit);
+        List<LedgerPosting> recovered = new LedgerJournal(directory, 4096, true).recover();
+        assertThat(recovered).hasSize(2);
+        assertSame(recovered.get(0), debit);
+        assertSame(recovered.get(1), credit);
+    }
+    
+    @Test
+    void recoversAcrossSegmentsInOrder() throws Exception {
+        // Room for two records per segment
+        LedgerJournal journal = open(200, false);
+        for (long id = 1; id <= 7; id++) {
+            journal.append(posting(id), posting -> { });
+        }
+        journal.close();
+        assertThat(segments()).hasSizeGreaterThan(1);
+        
+        List<LedgerPosting> recovered = new LedgerJournal(directory, 200, false).recover();
+        assertThat(recovered).extracting(LedgerPosting::getTransactionId).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(recovered).extracting(LedgerPosting::getSequence).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    }
+    
+    @Test
+    void dropsACorruptTail() throws Exception {
+        LedgerJournal journal = open(4096, false);
+        journal.append(posting(1), posting -> { });
+        journal.append(posting(2), posting -> { });
+        journal.close();
+        
+        // Flip the last byte of the second record, as a torn write would leave it
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int first = buffer.getInt(0);
+            int second = buffer.getInt(8 + first);
+            int last = 8 + first + 8 + second - 1;
+            buffer.put(last, (byte) ~buffer.get(last));
+        }
+        
+        List<LedgerPosting> recovered = new LedgerJournal(directory, 4096, false).recover();
+        assertThat(recovered).extracting(LedgerPosting::getTransactionId).containsExactly(1L);
+    }
+    
+    @Test
+    void setsAsideSegmentsAfterATornOne() throws Exception {
+        // Room for two records per segment: 1-2, 3-4, 5-6 and 7
+        LedgerJournal journal = open(200, false);
+        for (long id = 1; id <= 7; id++) {
+            journal.append(posting(id), posting -> { });
+        }
+        journal.close();
+        
+        // Tear the first record of the second segment
+        Path torn = segments().get(1);
+        try (FileChannel channel = FileChannel.open(torn, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int last = 8 + buffer.getInt(0) - 1;
+            buffer.put(last, (byte) ~buffer.get(last));
+        }
+        
+        LedgerJournal reopened = new LedgerJournal(directory, 200, false);
+        assertThat(reopened.recover()).extracting(LedgerPosting::getTransactionId).containsExactly(1L, 2L);
+        reopened.discardRecovered();
+        assertThat(segments()).extracting(path -> path.getFileName().toString()).containsExactly(
+                "journal-00000000000000000005.log.torn", "journal-00000000000000000007.log.torn");
+        
+        // The new segment is named past the set-aside ones
+        reopened.open();
+        assertThat(reopened.append(posting(8), posting -> { })).isEqualTo(8);
+        reopened.close();
+        
+        assertThat(new LedgerJournal(directory, 200, false).recover())
+                .extracting(LedgerPosting::getTransactionId).containsExactly(8L);
+    }
+    
+    @Test
+    void leavesNothingToReplayOnceEverythingIsPersisted() throws Exception {
+        LedgerJournal journal = open(200, false);
+        long sequence = 0;
+        for (long id = 1; id <= 5; id++) {
+            sequence = journal.append(posting(id), posting -> { });
+        }
+        journal.persisted(sequence);
+        journal.close();
+        
+        assertThat(segments()).isEmpty();
+        assertThat(new LedgerJournal(directory, 200, false).recover()).isEmpty();
+    }
+    
+    @Test
+    void continuesTheSequenceAfterRecovery() throws Exception {
+        LedgerJournal journal = open(4096, false);
+        journal.append(posting(1), posting -> { });
+        journal.append(posting(2), posting -> { });
+        journal.close();
+        
+        LedgerJournal reopened = new LedgerJournal(directory, 4096, false);
+        assertThat(reopened.recover()).hasSize(2);
+        reopened.discardRecovered();
+        reopened.open();
+        assertThat(reopened.append(posting(3), posting -> { })).isEqualTo(3);
+        reopened.close();
+        
+        assertThat(new LedgerJournal(directory, 4096, false).recover())
+                .extracting(LedgerPosting::getTransactionId).containsExactly(3L);
+    }
+    
+    @Test
+    void refusesALegLargerThanASegment() throws Exception {
+        LedgerJournal journal = open(200, false);
+        LedgerPosting large = new LedgerPosting(1, TransactionType.CREDIT, null, 1L, BigDecimal.ONE,
+                TIMESTAMP, "x".repeat(500), 1, BigDecimal.ONE, true);
+        List<LedgerPosting> handedOn = new ArrayList<>();
+        
+        assertThatThrownBy(() -> journal.append(large, handedOn::add)).isInstanceOf(RuntimeException.class);
+        assertThat(handedOn).isEmpty();
+        assertThat(journal.lastSequence()).isZero();
+        journal.close();
+    }
+    
+    private LedgerJournal open(int segmentSize, boolean fsync) throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory, segmentSize, fsync);
+        assertThat(journal.recover()).isEmpty();
+        journal.open();
+        return journal;
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+    
+    private static LedgerPosting posting(long transactionId) {
+        return new LedgerPosting(transactionId, TransactionType.CREDIT, null, 1L, BigDecimal.TEN,
+                TIMESTAMP, "Deposit", 1, BigDecimal.TEN, true);
+    }
+    
+    private static void assertSame(LedgerPosting actual, LedgerPosting expected) {
+        assertThat(actual.getSequence()).isEqualTo(expected.getSequence());
+        assertThat(actual.getTransactionId()).isEqualTo(expected.getTransactionId());
+        assertThat(actual.getType()).isEqualTo(expected.getType());
+        assertThat(actual.getSenderId()).isEqualTo(expected.getSenderId());
+        assertThat(actual.getReceiverId()).isEqualTo(expected.getReceiverId());
+        assertThat(actual.getAmount()).isEqualTo(expected.getAmount());
+        assertThat(actual.getTimestamp()).isEqualTo(expected.getTimestamp());
+        assertThat(actual.getDescription()).isEqualTo(expected.getDescription());
+        assertThat(actual.getAccountId()).isEqualTo(expected.getAccountId());
+        assertThat(actual.getBalanceAfter()).isEqualTo(expected.getBalanceAfter());
+        assertThat(actual.recordsTransaction()).isEqualTo(expected.recordsTransaction());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.banking.repository;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.Transaction;
+import com.banking.entity.TransactionType;
+import com.banking.entity.User;
+import com.banking.util.TimeOrderedIds;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * History reads must stay single statements: no lazy loading of the users behind a row
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:repository;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // The classpath: URL scheme is registered by the embedded Tomcat, which this test does not start
+        "spring.jpa.properties.hibernate.javax.cache.uri=hibernate-cache.conf",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TimeOrderedIds.class)
+class TransactionRepositoryTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0);
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private Statistics statistics;
+    private User alice;
+    
+    @BeforeEach
+    void setUp() {
+        alice = userRepository.save(new User("alice", "secret", "alice@example.com"));
+        User bob = userRepository.save(new User("bob", "secret", "bob@example.com"));
+        
+        save(null, alice, TransactionType.CREDIT, 0);
+        save(alice, bob, TransactionType.TRANSFER, 1);
+        save(bob, alice, TransactionType.TRANSFER, 2);
+        save(alice, null, TransactionType.DEBIT, 3);
+        // Bob's own postings are not part of Alice's history
+        save(null, bob, TransactionType.CREDIT, 4);
+        
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void historyPageIsOneStatement() {
+        List<TransactionResponse> first = transactionRepository.findFirstPageByUserId(alice.getId(), 3);
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(first).extracting(TransactionResponse::getType).containsExactly(
+                TransactionType.DEBIT, TransactionType.TRANSFER, TransactionType.TRANSFER);
+        assertThat(first.get(1).getSenderUsername()).isEqualTo("bob");
+        assertThat(first.get(1).getReceiverUsername()).isEqualTo("alice");
+        
+        statistics.clear();
+        TransactionResponse last = first.get(first.size() - 1);
+        List<TransactionResponse> next = transactionRepository.findPageByUserId(
+                alice.getId(), last.getTimestamp(), last.getId(), 3);
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(next).extracting(TransactionResponse::getType).containsExactly(TransactionType.CREDIT);
+    }
+    
+    @Test
+    void exportStreamIsOneStatement() {
+        List<TransactionResponse> rows;
+        try (Stream<TransactionResponse> stream = transactionRepository.streamHistoryByUserId(alice.getId())) {
+            rows = stream.toList();
+        }
+        
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(rows).hasSize(4);
+        assertThat(rows).extracting(TransactionResponse::getTimestamp).isSortedAccordingTo((a, b) -> b.compareTo(a));
+    }
+    
+    private void save(User sender, User receiver, TransactionType type, int minutes) {
+        Transaction transaction = new Transaction(sender, receiver, new BigDecimal("10.00"), type, type.name());
+        transaction.setTimestamp(START.plusMinutes(minutes));
+        transactionRepository.save(transaction);
+    }
+}
\ No newline at end of file
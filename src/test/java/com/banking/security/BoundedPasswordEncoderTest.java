@@ -0,0 +1,41 @@
+package com.banking.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedPasswordEncoderTest {
+    
+    private BoundedPasswordEncoder encoder;
+    
+    @BeforeEach
+    void setUp() {
+        encoder = new BoundedPasswordEncoder();
+        ReflectionTestUtils.setField(encoder, "strength", 10);
+    }
+    
+    @Test
+    void upgradesHashesOfAnotherCost() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password123"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(12).encode("password123"))).isTrue();
+    }
+    
+    @Test
+    void keepsHashesOfTheConfiguredCost() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(10).encode("password123"))).isFalse();
+        // Other BCrypt versions of the same cost
+        assertThat(encoder.upgradeEncoding("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy")).isFalse();
+        assertThat(encoder.upgradeEncoding("$2b$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy")).isFalse();
+    }
+    
+    @Test
+    void leavesValuesThatAreNotBCryptHashes() {
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+        assertThat(encoder.upgradeEncoding("")).isFalse();
+        assertThat(encoder.upgradeEncoding("password123")).isFalse();
+        assertThat(encoder.upgradeEncoding("$2a$04$tooShort")).isFalse();
+    }
+}
\ No newline at end of file
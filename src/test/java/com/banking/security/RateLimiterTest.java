@@ -0,0 +1,73 @@
+package com.banking.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+    
+    private RateLimiter rateLimiter;
+    
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "authPerSecond", 1.0);
+        ReflectionTestUtils.setField(rateLimiter, "authBurst", 3);
+        ReflectionTestUtils.setField(rateLimiter, "readPerSecond", 1000.0);
+        ReflectionTestUtils.setField(rateLimiter, "readBurst", 1000);
+        // Slow enough that no token comes back while the test runs
+        ReflectionTestUtils.setField(rateLimiter, "writePerSecond", 0.001);
+        ReflectionTestUtils.setField(rateLimiter, "writeBurst", 2);
+        rateLimiter.init();
+    }
+    
+    @Test
+    void allowsABurstThenRefusesWithTheWait() {
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "alice")).isZero();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "alice")).isZero();
+        
+        long wait = rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "alice");
+        
+        // One token every 1000 seconds
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1000));
+        assertThat(wait).isGreaterThan(TimeUnit.SECONDS.toNanos(990));
+        assertThat(rateLimiter.getRejected(RateLimiter.Endpoint.WRITE)).isEqualTo(1);
+    }
+    
+    @Test
+    void limitsClientsAndEndpointClassesSeparately() {
+        rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "alice");
+        rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "alice");
+        
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "alice")).isPositive();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "bob")).isZero();
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Endpoint.READ, "alice")).isZero();
+        assertThat(rateLimiter.getBuckets(RateLimiter.Endpoint.WRITE)).isEqualTo(2);
+    }
+    
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(RateLimiter.Endpoint.AUTH, "10.0.0.1")).isZero();
+        }
+        long wait = rateLimiter.tryAcquire(RateLimiter.Endpoint.AUTH, "10.0.0.1");
+        assertThat(wait).isPositive();
+        
+        TimeUnit.NANOSECONDS.sleep(wait);
+        
+        assertThat(rateLimiter.tryAcquire(RateLimiter.Endpoint.AUTH, "10.0.0.1")).isZero();
+    }
+    
+    @Test
+    void sweepKeepsOnlyBucketsStillRefilling() {
+        rateLimiter.tryAcquire(RateLimiter.Endpoint.WRITE, "alice");
+        
+        rateLimiter.evictIdle();
+        
+        assertThat(rateLimiter.getBuckets(RateLimiter.Endpoint.WRITE)).isEqualTo(1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.banking.service;
+
+import com.banking.exception.BankingErrors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentionRetryTest {
+    
+    private ContentionRetry contentionRetry;
+    private ContentionStats contentionStats;
+    
+    @BeforeEach
+    void setUp() {
+        contentionRetry = new ContentionRetry();
+        contentionStats = new ContentionStats();
+        ReflectionTestUtils.setField(contentionRetry, "transactionManager", new NoTransactions());
+        ReflectionTestUtils.setField(contentionRetry, "contentionStats", contentionStats);
+        ReflectionTestUtils.setField(contentionRetry, "maxAttempts", 2);
+        ReflectionTestUtils.setField(contentionRetry, "backoffMs", 0L);
+    }
+    
+    @Test
+    void countsMySqlDeadlocksAndLockWaitTimeoutsByErrorCode() {
+        // Both arrive as SQLState 40001, and Hibernate translates both to the same exception
+        fail(new CannotAcquireLockException("deadlock", mysql(1213)));
+        fail(new CannotAcquireLockException("lock wait timeout", mysql(1205)));
+        
+        assertThat(contentionStats.getDeadlocks()).isEqualTo(2);
+        assertThat(contentionStats.getLockWaitTimeouts()).isEqualTo(2);
+    }
+    
+    @Test
+    void fallsBackToTheExceptionTypeWithoutAnErrorCode() {
+        fail(new DeadlockLoserDataAccessException("deadlock", null));
+        fail(new CannotAcquireLockException("lock wait timeout"));
+        fail(new ConcurrencyFailureException("other"));
+        
+        assertThat(contentionStats.getDeadlocks()).isEqualTo(2);
+        assertThat(contentionStats.getLockWaitTimeouts()).isEqualTo(2);
+        assertThat(contentionStats.getRetries()).isEqualTo(3);
+        assertThat(contentionStats.getRetriesExhausted()).isEqualTo(3);
+    }
+    
+    @Test
+    void returnsOnceAnAttemptSucceeds() {
+        int[] attempts = new int[1];
+        
+        String result = contentionRetry.execute(() -> {
+            if (attempts[0]++ == 0) {
+                throw new CannotAcquireLockException("lock wait timeout", mysql(1205));
+            }
+            return "posted";
+        });
+        
+        assertThat(result).isEqualTo("posted");
+        assertThat(contentionStats.getRetries()).isEqualTo(1);
+        assertThat(contentionStats.getRetriesExhausted()).isZero();
+    }
+    
+    @Test
+    void leavesTheRetryToAnEnclosingTransaction() {
+        ConcurrencyFailureException deadlock = new CannotAcquireLockException("deadlock", mysql(1213));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(() -> contentionRetry.execute(() -> {
+                throw deadlock;
+            })).isSameAs(deadlock);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        
+        assertThat(contentionStats.getRetries()).isZero();
+    }
+    
+    /**
+     * Run a posting that fails on every attempt
+     */
+    private void fail(ConcurrencyFailureException e) {
+        assertThatThrownBy(() -> contentionRetry.execute(() -> {
+            throw e;
+        })).isSameAs(BankingErrors.ACCOUNT_BUSY);
+    }
+    
+    private static SQLException mysql(int errorCode) {
+        return new SQLTransactionRollbackException("MySQL error " + errorCode, "40001", errorCode);
+    }
+    
+    private static class NoTransactions implements PlatformTransactionManager {
+        
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+        
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+        
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
\ No newline at end of file
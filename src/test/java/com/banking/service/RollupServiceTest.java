@@ -0,0 +1,24 @@
+package com.banking.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupServiceTest {
+    
+    @Test
+    void usesTheRowAliasFromMySql8019() {
+        assertThat(RollupService.supportsRowAlias("MySQL", "8.0.19")).isTrue();
+        assertThat(RollupService.supportsRowAlias("MySQL", "8.0.35-0ubuntu0.22.04.1")).isTrue();
+        assertThat(RollupService.supportsRowAlias("MySQL", "8.4.0")).isTrue();
+        assertThat(RollupService.supportsRowAlias("MySQL", "9.1.0")).isTrue();
+    }
+    
+    @Test
+    void fallsBackToValuesElsewhere() {
+        assertThat(RollupService.supportsRowAlias("MySQL", "8.0.18")).isFalse();
+        assertThat(RollupService.supportsRowAlias("MySQL", "5.7.44-log")).isFalse();
+        assertThat(RollupService.supportsRowAlias("MariaDB", "11.4.2-MariaDB")).isFalse();
+        assertThat(RollupService.supportsRowAlias("H2", "2.2.224 (2023-09-17)")).isFalse();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.banking.util;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvExportUtilTest {
+    
+    private static final String HEADER = "Transaction ID,Sender,Receiver,Amount,Date,Type,Description\n";
+    
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 3, 1, 12, 30, 45, 999_000_000);
+    
+    private final CsvExportUtil csvExportUtil = new CsvExportUtil();
+    
+    @Test
+    void writesPlainFieldsAsTheyAre() {
+        assertThat(row(new TransactionResponse(7L, "alice", "bob", new BigDecimal("12.50"), TIMESTAMP,
+                TransactionType.TRANSFER, "Rent")))
+                .isEqualTo("7,alice,bob,12.50,2025-03-01 12:30:45,TRANSFER,Rent\n");
+    }
+    
+    @Test
+    void writesMissingPartiesAsNotApplicable() {
+        assertThat(row(new TransactionResponse(7L, null, "bob", BigDecimal.TEN, TIMESTAMP,
+                TransactionType.CREDIT, null)))
+                .isEqualTo("7,N/A,bob,10,2025-03-01 12:30:45,CREDIT,\n");
+    }
+    
+    @Test
+    void quotesSeparatorsAndQuotes() {
+        assertThat(description("a,b")).isEqualTo("\"a,b\"");
+        assertThat(description("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(description("it's")).isEqualTo("\"it's\"");
+    }
+    
+    @Test
+    void replacesLineBreaksWithASpace() {
+        assertThat(description("a\r\nb\nc\rd e")).isEqualTo("a b c d e");
+    }
+    
+    @Test
+    void streamsTheSameRowsAsTheStringExport() throws Exception {
+        List<TransactionResponse> rows = List.of(
+                new TransactionResponse(2L, "alice", null, BigDecimal.ONE, TIMESTAMP, TransactionType.DEBIT, "x,y"),
+                new TransactionResponse(1L, null, "alice", BigDecimal.TEN, TIMESTAMP, TransactionType.CREDIT, null));
+        StringWriter writer = new StringWriter();
+        
+        long written = csvExportUtil.writeTransactionsCsv(rows.iterator(), writer);
+        
+        assertThat(written).isEqualTo(2);
+        assertThat(writer.toString()).isEqualTo(csvExportUtil.exportTransactionsToCsv(rows))
+                .startsWith(HEADER);
+    }
+    
+    private String row(TransactionResponse transaction) {
+        String csv = csvExportUtil.exportTransactionsToCsv(List.of(transaction));
+        assertThat(csv).startsWith(HEADER);
+        return csv.substring(HEADER.length());
+    }
+    
+    private String description(String description) {
+        String row = row(new TransactionResponse(1L, "a", "b", BigDecimal.ONE, TIMESTAMP,
+                TransactionType.TRANSFER, description));
+        return row.substring("1,a,b,1,2025-03-01 12:30:45,TRANSFER,".length(), row.length() - 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.banking.util;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistoryMergeTest {
+    
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 12, 0);
+    
+    @Test
+    void interleavesNewestFirst() {
+        List<TransactionResponse> hot = List.of(row(9, 9), row(5, 5), row(4, 4));
+        List<TransactionResponse> archived = List.of(row(8, 8), row(3, 3), row(1, 1));
+        
+        assertThat(HistoryMerge.merge(hot, archived, 10)).extracting(TransactionResponse::getId)
+                .containsExactly(9L, 8L, 5L, 4L, 3L, 1L);
+    }
+    
+    @Test
+    void ordersEqualTimestampsById() {
+        List<TransactionResponse> hot = List.of(row(7, 2), row(5, 2));
+        List<TransactionResponse> archived = List.of(row(6, 2), row(4, 2));
+        
+        assertThat(HistoryMerge.merge(hot, archived, 10)).extracting(TransactionResponse::getId)
+                .containsExactly(7L, 6L, 5L, 4L);
+    }
+    
+    @Test
+    void dropsARowReadFromBothTables() {
+        // Archived between the two reads
+        List<TransactionResponse> hot = List.of(row(9, 9), row(5, 5));
+        List<TransactionResponse> archived = List.of(row(5, 5), row(2, 2));
+        
+        assertThat(HistoryMerge.merge(hot, archived, 10)).extracting(TransactionResponse::getId)
+                .containsExactly(9L, 5L, 2L);
+    }
+    
+    @Test
+    void stopsAtTheLimit() {
+        List<TransactionResponse> hot = List.of(row(9, 9), row(5, 5), row(4, 4));
+        
+        assertThat(HistoryMerge.merge(hot, List.of(), 2)).extracting(TransactionResponse::getId)
+                .containsExactly(9L, 5L);
+        assertThat(HistoryMerge.merge(hot, List.of(row(8, 8)), 2)).extracting(TransactionResponse::getId)
+                .containsExactly(9L, 8L);
+    }
+    
+    @Test
+    void drainsWhicheverInputIsLeft() {
+        assertThat(HistoryMerge.merge(List.of(), List.of(row(3, 3), row(1, 1)), 10))
+                .extracting(TransactionResponse::getId).containsExactly(3L, 1L);
+    }
+    
+    private static TransactionResponse row(long id, int minutes) {
+        return new TransactionResponse(id, "alice", "bob", BigDecimal.ONE, START.plusMinutes(minutes),
+                TransactionType.TRANSFER, null);
+    }
+}
\ No newline at end of file
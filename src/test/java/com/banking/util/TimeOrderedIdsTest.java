@@ -0,0 +1,80 @@
+package com.banking.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedIdsTest {
+    
+    @BeforeEach
+    void setUp() {
+        // The last id is shared by the JVM; start from a clean slate
+        ((AtomicLong) ReflectionTestUtils.getField(TimeOrderedIds.class, "lastId")).set(0);
+    }
+    
+    @Test
+    void idsIncreaseAndCarryTheNodeId() {
+        TimeOrderedIds.start(5, 0);
+        
+        long previous = 0;
+        // Several times the per-millisecond sequence, so some ids borrow the next millisecond
+        for (int i = 0; i < 10_000; i++) {
+            long id = TimeOrderedIds.next();
+            assertThat(id).isGreaterThan(previous);
+            assertThat(nodeOf(id)).isEqualTo(5);
+            previous = id;
+        }
+        assertThat(previous).isLessThan(1L << 53);
+    }
+    
+    @Test
+    void continuesAfterTheHighestStoredId() {
+        // An id of another node an hour ahead of the clock, e.g. written before the clock was stepped back
+        long millis = System.currentTimeMillis() - TimeOrderedIds.EPOCH_MILLIS + 3_600_000;
+        long stored = (millis << (TimeOrderedIds.NODE_BITS + TimeOrderedIds.SEQUENCE_BITS))
+                | (3L << TimeOrderedIds.SEQUENCE_BITS) | 7;
+        
+        TimeOrderedIds.start(5, stored);
+        long id = TimeOrderedIds.next();
+        
+        assertThat(id).isGreaterThan(stored);
+        assertThat(nodeOf(id)).isEqualTo(5);
+        assertThat(TimeOrderedIds.next()).isGreaterThan(id);
+    }
+    
+    @Test
+    void restartsWithTheNewNodeIdEvenBehindEarlierIds() {
+        TimeOrderedIds.start(3, 0);
+        long earlier = 0;
+        for (int i = 0; i < 1_000; i++) {
+            earlier = TimeOrderedIds.next();
+        }
+        
+        TimeOrderedIds.start(5, 0);
+        long id = TimeOrderedIds.next();
+        
+        assertThat(id).isGreaterThan(earlier);
+        assertThat(nodeOf(id)).isEqualTo(5);
+    }
+    
+    @Test
+    void rejectsNodeIdsThatDoNotFit() {
+        assertThatThrownBy(() -> node(TimeOrderedIds.MAX_NODE_ID + 1).init()).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> node(-1).init()).isInstanceOf(IllegalStateException.class);
+    }
+    
+    private static TimeOrderedIds node(int nodeId) {
+        TimeOrderedIds ids = new TimeOrderedIds();
+        ReflectionTestUtils.setField(ids, "nodeId", nodeId);
+        return ids;
+    }
+    
+    private static long nodeOf(long id) {
+        return (id >>> TimeOrderedIds.SEQUENCE_BITS) & TimeOrderedIds.MAX_NODE_ID;
+    }
+}
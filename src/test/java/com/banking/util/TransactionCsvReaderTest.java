@@ -0,0 +1,68 @@
+package com.banking.util;
+
+import com.banking.dto.TransactionResponse;
+import com.banking.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCsvReaderTest {
+    
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 3, 1, 12, 30, 45);
+    
+    @Test
+    void readsWhatTheExporterWrites() {
+        List<TransactionResponse> rows = List.of(
+                new TransactionResponse(2L, "alice", "bøb", new BigDecimal("12.50"), TIMESTAMP,
+                        TransactionType.TRANSFER, "Rent, \"March\" ✓"),
+                new TransactionResponse(1L, null, "alice", BigDecimal.TEN, TIMESTAMP, TransactionType.CREDIT, null));
+        String csv = new CsvExportUtil().exportTransactionsToCsv(rows);
+        
+        TransactionCsvReader reader = reader(csv);
+        
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.field(TransactionCsvReader.ID)).isEqualTo("Transaction ID");
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.field(TransactionCsvReader.ID)).isEqualTo("2");
+        assertThat(reader.field(TransactionCsvReader.RECEIVER)).isEqualTo("bøb");
+        assertThat(reader.field(TransactionCsvReader.AMOUNT)).isEqualTo("12.50");
+        assertThat(TransactionCsvReader.parseTimestamp(reader.field(TransactionCsvReader.DATE))).isEqualTo(TIMESTAMP);
+        assertThat(reader.field(TransactionCsvReader.TYPE)).isEqualTo("TRANSFER");
+        assertThat(reader.field(TransactionCsvReader.DESCRIPTION)).isEqualTo("Rent, \"March\" ✓");
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.field(TransactionCsvReader.SENDER)).isEqualTo("N/A");
+        assertThat(reader.field(TransactionCsvReader.DESCRIPTION)).isEmpty();
+        assertThat(reader.next()).isFalse();
+    }
+    
+    @Test
+    void skipsBlankLinesAndCarriageReturns() {
+        TransactionCsvReader reader = reader("\r\n1,a,b,1,2025-03-01 12:30:45,DEBIT,x\r\n\n");
+        
+        assertThat(reader.next()).isTrue();
+        assertThat(reader.getLineStart()).isEqualTo(2);
+        assertThat(reader.field(TransactionCsvReader.DESCRIPTION)).isEqualTo("x");
+        assertThat(reader.next()).isFalse();
+    }
+    
+    @Test
+    void rejectsMalformedRows() {
+        assertThatThrownBy(() -> reader("1,a,b\n").next()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reader("1,a,b,1,2,3,4,5\n").next()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> reader("1,a,b,1,2,3,\"open\n").next()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCsvReader.parseTimestamp("2025-03-01T12:30:45"))
+                .isInstanceOf(DateTimeParseException.class);
+    }
+    
+    private static TransactionCsvReader reader(String csv) {
+        return new TransactionCsvReader(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
\ No newline at end of file